@@ -0,0 +1,13 @@
+package io.archura.platform.external;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous sending of stream records, records are batched with the records of other requests.
+ * The stream returned by {@code Context.getLightStream()} implements this interface.
+ */
+public interface AsyncLightStream {
+
+    CompletableFuture<String> sendAsync(String topicName, byte[] value);
+
+}
@@ -0,0 +1,16 @@
+package io.archura.platform.external;
+
+import io.archura.platform.api.context.Context;
+
+import java.util.List;
+
+/**
+ * Stream consumer that receives the records of its topic in batches instead of one record per call.
+ * A batch is delivered once it reaches the maximum batch size or the maximum wait time has passed,
+ * the records of a batch are acknowledged together after the call returns.
+ */
+public interface BatchStreamConsumer {
+
+    void consume(Context context, List<StreamRecord> records);
+
+}
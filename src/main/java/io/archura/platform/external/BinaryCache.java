@@ -0,0 +1,18 @@
+package io.archura.platform.external;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Raw access to the values of a tenant cache, bypassing the value codec.
+ * The cache returned by {@code Context.getCache()} implements this interface.
+ */
+public interface BinaryCache {
+
+    byte[] getBytes(String hashKey);
+
+    List<byte[]> multiGetBytes(Collection<String> hashKeys);
+
+    void putBytes(String hashKey, byte[] value);
+
+}
@@ -10,6 +10,7 @@ import org.springframework.web.servlet.function.ServerRequest;
 import org.springframework.web.servlet.function.ServerResponse;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.function.BiFunction;
 import java.util.function.UnaryOperator;
@@ -21,6 +22,10 @@ public class FilterFunctionExecutor {
         streamConsumer.consume(context, key, value);
     }
 
+    public void execute(Context context, BatchStreamConsumer batchStreamConsumer, List<StreamRecord> records) {
+        batchStreamConsumer.consume(context, records);
+    }
+
     public void execute(Context context, ContextConsumer contextConsumer) {
         contextConsumer.accept(context);
     }
@@ -0,0 +1,14 @@
+package io.archura.platform.external;
+
+import java.util.Optional;
+
+/**
+ * Sending of stream records with a key, consumers with a concurrency above one process
+ * the records of the same key in the order they were sent.
+ * The stream returned by {@code Context.getLightStream()} implements this interface.
+ */
+public interface KeyedLightStream {
+
+    Optional<String> send(String topicName, byte[] key, byte[] value);
+
+}
@@ -0,0 +1,12 @@
+package io.archura.platform.external;
+
+/**
+ * Acknowledgement of the records delivered to stream consumers configured with the manual ack mode,
+ * the record id is the key passed to {@code StreamConsumer.consume}, for partitioned topics it includes the partition.
+ * The stream returned by {@code Context.getLightStream()} implements this interface.
+ */
+public interface StreamAcknowledger {
+
+    long acknowledge(String topicName, String... recordIds);
+
+}
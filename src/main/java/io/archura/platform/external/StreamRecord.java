@@ -0,0 +1,7 @@
+package io.archura.platform.external;
+
+/**
+ * Record of a stream delivered to a {@link BatchStreamConsumer}, the key is the record id as with {@code StreamConsumer}.
+ */
+public record StreamRecord(byte[] key, byte[] value) {
+}
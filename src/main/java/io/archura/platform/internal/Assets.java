@@ -8,59 +8,100 @@ import io.archura.platform.api.attribute.GlobalKeys;
 import io.archura.platform.api.cache.Cache;
 import io.archura.platform.api.context.Context;
 import io.archura.platform.api.exception.ConfigurationException;
+import io.archura.platform.api.exception.ResourceLoadException;
 import io.archura.platform.api.logger.Logger;
 import io.archura.platform.api.stream.LightStream;
 import io.archura.platform.api.type.Configurable;
 import io.archura.platform.external.FilterFunctionExecutor;
+import io.archura.platform.internal.cache.CacheBatcher;
+import io.archura.platform.internal.cache.NearCacheRegistry;
 import io.archura.platform.internal.cache.TenantCache;
+import io.archura.platform.internal.cache.codec.ValueCodecRegistry;
+import io.archura.platform.internal.code.JarCache;
+import io.archura.platform.internal.configuration.GlobalConfiguration;
+import io.archura.platform.internal.context.ContextBinding;
 import io.archura.platform.internal.context.RequestContext;
+import io.archura.platform.internal.deadline.RequestDeadline;
+import io.archura.platform.internal.deadline.RequestDeadlines;
+import io.archura.platform.internal.http.TenantHttpClient;
+import io.archura.platform.internal.http.TenantHttpClientFactory;
 import io.archura.platform.internal.logging.LoggerFactory;
+import io.archura.platform.internal.registry.ResourceRegistry;
+import io.archura.platform.internal.stream.LocalStreamRegistry;
+import io.archura.platform.internal.stream.StreamProducer;
 import io.archura.platform.internal.stream.TenantStream;
+import io.archura.platform.internal.stream.TopicPartitioner;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.StreamOperations;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.lang.reflect.Constructor;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
-import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 @RequiredArgsConstructor
-public class Assets {
+public class Assets implements MeterBinder {
 
-    private final Map<String, TenantCache> tenantCacheMap = new HashMap<>();
-    private final Map<String, TenantStream> tenantStreamMap = new HashMap<>();
-    private final Map<String, Class<?>> remoteClassMap = new HashMap<>();
-    private final Map<String, HttpClient> tenantHttpClientMap = new HashMap<>();
+    private static final String CONTEXT_KEY = Context.class.getSimpleName();
+    private static final int MAX_CONTEXT_BINDINGS = 10_000;
+
+    private final ResourceRegistry<String, TenantCache> tenantCaches = new ResourceRegistry<>("tenant-cache");
+    private final ResourceRegistry<String, TenantStream> tenantStreams = new ResourceRegistry<>("tenant-stream");
+    private final ResourceRegistry<String, Class<?>> remoteClasses = new ResourceRegistry<>("remote-class");
+    private final ResourceRegistry<String, TenantHttpClient> tenantHttpClients = new ResourceRegistry<>("tenant-http-client");
     private final ObjectMapper objectMapper;
-    private final HttpClient defaultHttpClient;
+    private final TenantHttpClientFactory tenantHttpClientFactory;
     private final FilterFunctionExecutor filterFunctionExecutor;
-    private final Random random = new Random();
+    private final JarCache jarCache;
+    private final NearCacheRegistry nearCacheRegistry;
+    private final ValueCodecRegistry valueCodecRegistry;
+    private final CacheBatcher cacheBatcher;
+    private final StreamProducer streamProducer;
+    private final TopicPartitioner topicPartitioner;
+    private final LocalStreamRegistry localStreamRegistry;
+    private final Map<BindingKey, ContextBinding> contextBindings = new ConcurrentHashMap<>();
+    private volatile HashOperations<String, String, byte[]> boundHashOperations;
+    private volatile StreamOperations<String, Object, Object> boundStreamOperations;
 
     public <T> T getConfiguration(HttpClient configurationHttpClient, String url, Class<T> tClass) {
+        return readConfiguration(getConfigurationContent(configurationHttpClient, url), url, tClass);
+    }
+
+    public byte[] getConfigurationContent(HttpClient configurationHttpClient, String url) {
         HttpRequest request = HttpRequest.newBuilder()
                 .GET()
                 .uri(URI.create(url))
                 .build();
         try {
-            HttpResponse<InputStream> response = configurationHttpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            HttpResponse<byte[]> response = configurationHttpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
             if (response.statusCode() >= 200 && response.statusCode() <= 299) {
-                return objectMapper.readValue(response.body(), tClass);
+                return response.body();
             } else {
                 final String errorMessage = String.format("Configuration file could not be found, url: %s", url);
                 throw new ConfigurationException(errorMessage);
             }
         } catch (IOException | InterruptedException e) {
+            String errorMessage = String.format("Error while reading configuration from url: '%s', error: %s", url, e.getMessage());
+            throw new ConfigurationException(errorMessage, e);
+        }
+    }
+
+    public <T> T readConfiguration(byte[] content, String url, Class<T> tClass) {
+        try {
+            return objectMapper.readValue(content, tClass);
+        } catch (IOException e) {
             String errorMessage = String.format("Error while reading configuration class: '%s' from url: '%s', error: %s", tClass.getSimpleName(), url, e.getMessage());
             throw new ConfigurationException(errorMessage, e);
         }
@@ -69,58 +110,130 @@ public class Assets {
     public Object createObject(String resourceUrl, String resourceKey, String className, JsonNode jsonNode, boolean reload)
             throws IOException, ReflectiveOperationException {
         if (reload) {
-            remoteClassMap.remove(resourceUrl);
-            final URL url = new URL(String.format("%s&%s", resourceKey, random.nextDouble()));
+            remoteClasses.remove(resourceUrl);
+            final URL url = getJarUrl(resourceUrl, resourceKey, true);
             final URLClassLoader classLoader = new URLClassLoader(new URL[]{url}, ClassLoader.getSystemClassLoader());
             final Class<?> remoteClass = classLoader.loadClass(className);
             final Object object = remoteClass.getDeclaredConstructor().newInstance();
             configure(jsonNode, object);
             return object;
         }
-        if (isNull(remoteClassMap.get(resourceUrl))) {
-            final URL url = new URL(resourceKey);
+        final Class<?> remoteClass = loadClass(resourceUrl, resourceKey, className);
+        final Object object = remoteClass.getDeclaredConstructor().newInstance();
+        configure(jsonNode, object);
+        return object;
+    }
+
+    public URL getJarUrl(String resourceUrl, String resourceKey, boolean revalidate) {
+        return jarCache.get(resourceUrl, resourceKey, revalidate);
+    }
+
+    public Class<?> loadClass(String resourceUrl, String resourceKey, String className) {
+        return remoteClasses.get(resourceUrl, key -> defineRemoteClass(resourceUrl, resourceKey, className));
+    }
+
+    private Class<?> defineRemoteClass(String resourceUrl, String resourceKey, String className) {
+        try {
+            final URL url = jarCache.get(resourceUrl, resourceKey);
             final URLClassLoader classLoader = new URLClassLoader(new URL[]{url}, ClassLoader.getSystemClassLoader());
-            final Class<?> remoteClass = classLoader.loadClass(className);
-            remoteClassMap.put(resourceUrl, remoteClass);
+            return classLoader.loadClass(className);
+        } catch (IOException | ClassNotFoundException e) {
+            throw new ResourceLoadException(e);
         }
-        final Object object = remoteClassMap.get(resourceUrl).getDeclaredConstructor().newInstance();
-        configure(jsonNode, object);
+    }
+
+    public Object newInstance(Constructor<?> constructor, Map<String, Object> config) throws ReflectiveOperationException {
+        final Object object = constructor.newInstance();
+        configure(config, object);
         return object;
     }
 
+    public Map<String, Object> toConfigurationMap(JsonNode jsonNode) {
+        return objectMapper.convertValue(jsonNode, new TypeReference<>() {
+        });
+    }
+
     public void configure(JsonNode jsonNode, Object object) {
+        if (Configurable.class.isAssignableFrom(object.getClass())) {
+            configure(toConfigurationMap(jsonNode), object);
+        }
+    }
+
+    public void configure(Map<String, Object> config, Object object) {
         if (Configurable.class.isAssignableFrom(object.getClass())) {
             final Configurable configurable = (Configurable) object;
-            final Map<String, Object> config = objectMapper.convertValue(jsonNode, new TypeReference<>() {
-            });
             filterFunctionExecutor.execute(configurable, config);
         }
     }
 
     public void buildContext(
             final Map<String, Object> attributes,
-            final HashOperations<String, String, Map<String, Object>> hashOperations,
+            final HashOperations<String, String, byte[]> hashOperations,
             final StreamOperations<String, Object, Object> streamOperations
     ) {
-        final RequestContext context = RequestContext.builder()
-                .cache(getTenantCache(attributes, hashOperations))
-                .lightStream(getTenantStream(attributes, streamOperations))
-                .logger(getLogger(attributes))
-                .httpClient(getHttpClient(attributes))
-                .objectMapper(getObjectMapper(attributes))
-                .build();
-        attributes.put(Context.class.getSimpleName(), context);
+        final Object environment = attributes.get(GlobalKeys.REQUEST_ENVIRONMENT.getKey());
+        final Object tenantId = attributes.get(EnvironmentKeys.REQUEST_TENANT_ID.getKey());
+        final Object logLevel = attributes.get(GlobalKeys.REQUEST_LOG_LEVEL.getKey());
+        final Object logTemplate = attributes.get(GlobalKeys.REQUEST_LOG_TEMPLATE.getKey());
+        final Object currentContext = attributes.get(CONTEXT_KEY);
+        if (currentContext instanceof RequestContext requestContext
+                && requestContext.isBoundTo(environment, tenantId, logLevel, logTemplate)) {
+            return;
+        }
+        final ContextBinding binding = getContextBinding(attributes, hashOperations, streamOperations,
+                new BindingKey(environment, tenantId, logLevel, logTemplate));
+        if (currentContext instanceof RequestContext requestContext) {
+            requestContext.bind(binding);
+        } else {
+            final RequestDeadline deadline = attributes.get(RequestDeadlines.DEADLINE_ATTRIBUTE) instanceof RequestDeadline requestDeadline
+                    ? requestDeadline : null;
+            attributes.put(CONTEXT_KEY, RequestContext.of(binding, getObjectMapper(attributes), deadline));
+        }
     }
 
-    private Optional<Cache> getTenantCache(final Map<String, Object> attributes, final HashOperations<String, String, Map<String, Object>> hashOperations) {
+    private ContextBinding getContextBinding(
+            final Map<String, Object> attributes,
+            final HashOperations<String, String, byte[]> hashOperations,
+            final StreamOperations<String, Object, Object> streamOperations,
+            final BindingKey bindingKey
+    ) {
+        if (boundHashOperations != hashOperations || boundStreamOperations != streamOperations) {
+            synchronized (contextBindings) {
+                if (boundHashOperations != hashOperations || boundStreamOperations != streamOperations) {
+                    contextBindings.clear();
+                    tenantCaches.clear();
+                    tenantStreams.clear();
+                    boundHashOperations = hashOperations;
+                    boundStreamOperations = streamOperations;
+                }
+            }
+        }
+        final ContextBinding binding = contextBindings.get(bindingKey);
+        if (nonNull(binding)) {
+            return binding;
+        }
+        if (contextBindings.size() >= MAX_CONTEXT_BINDINGS) {
+            // bindings are cheap to rebuild, the map is emptied instead of growing with every new attribute combination
+            contextBindings.clear();
+        }
+        return contextBindings.computeIfAbsent(bindingKey, key -> new ContextBinding(
+                key.environment(),
+                key.tenantId(),
+                key.logLevel(),
+                key.logTemplate(),
+                getTenantCache(attributes, hashOperations),
+                getTenantStream(attributes, streamOperations),
+                LoggerFactory.create(attributes),
+                getHttpClient(attributes)
+        ));
+    }
+
+    private Optional<Cache> getTenantCache(final Map<String, Object> attributes, final HashOperations<String, String, byte[]> hashOperations) {
         if (attributes.containsKey(GlobalKeys.REQUEST_ENVIRONMENT.getKey())
                 && attributes.containsKey(EnvironmentKeys.REQUEST_TENANT_ID.getKey())) {
             final String environmentTenantIdKey = getEnvironmentTenantKey(attributes);
-            if (isNull(tenantCacheMap.get(environmentTenantIdKey))) {
-                final TenantCache tenantCache = new TenantCache(environmentTenantIdKey, hashOperations);
-                tenantCacheMap.put(environmentTenantIdKey, tenantCache);
-            }
-            return Optional.of(tenantCacheMap.get(environmentTenantIdKey));
+            return Optional.of(tenantCaches.get(environmentTenantIdKey, key -> new TenantCache(key, hashOperations, valueCodecRegistry.get(key),
+                    nearCacheRegistry.get(key).orElse(null), cacheBatcher.isStarted() ? cacheBatcher : null)));
         } else {
             return Optional.empty();
         }
@@ -133,26 +246,39 @@ public class Assets {
         if (attributes.containsKey(GlobalKeys.REQUEST_ENVIRONMENT.getKey())
                 && attributes.containsKey(EnvironmentKeys.REQUEST_TENANT_ID.getKey())) {
             final String environmentTenantIdKey = getEnvironmentTenantKey(attributes);
-            if (isNull(tenantStreamMap.get(environmentTenantIdKey))) {
-                final TenantStream tenantStream = new TenantStream(environmentTenantIdKey, streamOperations);
-                tenantStreamMap.put(environmentTenantIdKey, tenantStream);
-            }
-            return Optional.of(tenantStreamMap.get(environmentTenantIdKey));
+            return Optional.of(tenantStreams.get(environmentTenantIdKey, key -> new TenantStream(key, streamOperations,
+                    streamProducer.isStarted() ? streamProducer : null, topicPartitioner, localStreamRegistry)));
         } else {
             return Optional.empty();
         }
     }
 
     public Logger getLogger(final Map<String, Object> attributes) {
+        if (attributes.get(CONTEXT_KEY) instanceof Context context) {
+            return context.getLogger();
+        }
         return LoggerFactory.create(attributes);
     }
 
     private HttpClient getHttpClient(final Map<String, Object> attributes) {
         final String environmentTenantIdKey = getEnvironmentTenantKey(attributes);
-        if (isNull(tenantHttpClientMap.get(environmentTenantIdKey))) {
-            tenantHttpClientMap.put(environmentTenantIdKey, defaultHttpClient);
-        }
-        return tenantHttpClientMap.get(environmentTenantIdKey);
+        return tenantHttpClients.get(environmentTenantIdKey, tenantHttpClientFactory::create);
+    }
+
+    /**
+     * Applies the http client configuration of a tenant to its http client.
+     *
+     * @param environmentName environment name.
+     * @param tenantId        tenant id.
+     * @param configuration   http client configuration, null to share the default http client.
+     */
+    public void configureHttpClient(
+            final String environmentName,
+            final String tenantId,
+            final GlobalConfiguration.HttpClientConfiguration configuration
+    ) {
+        final String environmentTenantIdKey = String.format("%s|%s", environmentName, tenantId);
+        tenantHttpClients.get(environmentTenantIdKey, tenantHttpClientFactory::create).configure(configuration);
     }
 
     private ObjectMapper getObjectMapper(Map<String, Object> attributes) {
@@ -165,4 +291,15 @@ public class Assets {
         return String.format("%s|%s", environmentName, tenantId);
     }
 
+    @Override
+    public void bindTo(final MeterRegistry meterRegistry) {
+        tenantCaches.bindTo(meterRegistry);
+        tenantStreams.bindTo(meterRegistry);
+        remoteClasses.bindTo(meterRegistry);
+        tenantHttpClients.bindTo(meterRegistry);
+    }
+
+    private record BindingKey(Object environment, Object tenantId, Object logLevel, Object logTemplate) {
+    }
+
 }
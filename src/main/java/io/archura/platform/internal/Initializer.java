@@ -9,62 +9,78 @@ import io.archura.platform.api.exception.ResourceLoadException;
 import io.archura.platform.api.logger.Logger;
 import io.archura.platform.api.type.functionalcore.ContextConsumer;
 import io.archura.platform.api.type.functionalcore.StreamConsumer;
+import io.archura.platform.external.BatchStreamConsumer;
 import io.archura.platform.external.FilterFunctionExecutor;
+import io.archura.platform.external.StreamRecord;
+import io.archura.platform.internal.admission.AdmissionController;
+import io.archura.platform.internal.cache.CacheBatcher;
+import io.archura.platform.internal.cache.NearCacheRegistry;
+import io.archura.platform.internal.cache.codec.ValueCodecRegistry;
 import io.archura.platform.internal.configuration.CacheConfiguration;
 import io.archura.platform.internal.configuration.GlobalConfiguration;
 import io.archura.platform.internal.configuration.IIFEConfiguration;
 import io.archura.platform.internal.configuration.ScheduledConfiguration;
 import io.archura.platform.internal.configuration.StreamConfiguration;
+import io.archura.platform.internal.schedule.CronScheduler;
+import io.archura.platform.internal.schedule.ScheduleCoordinator;
+import io.archura.platform.internal.stream.BatchStreamListener;
+import io.archura.platform.internal.stream.LocalStreamRegistry;
 import io.archura.platform.internal.stream.RedisStreamSubscription;
+import io.archura.platform.internal.stream.StreamProducer;
+import io.archura.platform.internal.stream.TopicPartitioner;
 import io.lettuce.core.RedisBusyException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.data.redis.RedisSystemException;
-import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.connection.stream.ObjectRecord;
 import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.StreamOperations;
 import org.springframework.data.redis.stream.StreamListener;
 import org.springframework.data.redis.stream.Subscription;
-import org.springframework.scheduling.annotation.SchedulingConfigurer;
-import org.springframework.scheduling.config.CronTask;
-import org.springframework.scheduling.config.ScheduledTaskRegistrar;
-import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.scheduling.support.CronExpression;
 
 import java.net.http.HttpClient;
 import java.nio.charset.StandardCharsets;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.TimeZone;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.ThreadFactory;
 
 import static java.util.Objects.nonNull;
 
 @RequiredArgsConstructor
-public class Initializer implements SchedulingConfigurer {
+public class Initializer {
 
     private final String configRepositoryUrl;
     private final HttpClient configurationHttpClient;
     private final ConfigurableBeanFactory beanFactory;
-    private final ThreadFactory threadFactory;
     private final ExecutorService executorService;
     private final Assets assets;
     private final RedisStreamSubscription redisStreamSubscription;
     private final FilterFunctionExecutor filterFunctionExecutor;
-    private ScheduledTaskRegistrar scheduledTaskRegistrar;
+    private final Prefetcher prefetcher;
+    private final NearCacheRegistry nearCacheRegistry;
+    private final ValueCodecRegistry valueCodecRegistry;
+    private final CacheBatcher cacheBatcher;
+    private final StreamProducer streamProducer;
+    private final TopicPartitioner topicPartitioner;
+    private final LocalStreamRegistry localStreamRegistry;
+    private final CronScheduler cronScheduler;
+    private final ScheduleCoordinator scheduleCoordinator;
+    private final AdmissionController admissionController;
 
     public void initialize() {
         final GlobalConfiguration globalConfiguration = loadGlobalConfiguration(beanFactory);
         handleIIFEFunctions(globalConfiguration);
         handleStreamFunctions(globalConfiguration);
         handleScheduledFunctions(globalConfiguration);
+        prefetcher.prefetch(globalConfiguration);
     }
 
     private GlobalConfiguration loadGlobalConfiguration(ConfigurableBeanFactory beanFactory) {
@@ -79,6 +95,15 @@ public class Initializer implements SchedulingConfigurer {
         final String redisUrl = globalConfig.getConfig().getRedisUrl();
         final CacheConfiguration cacheConfiguration = createCacheConfiguration(redisUrl);
         globalConfig.setCacheConfiguration(cacheConfiguration);
+        valueCodecRegistry.configure(globalConfig.getConfig());
+        topicPartitioner.configure(globalConfig.getConfig());
+        nearCacheRegistry.start(globalConfig.getConfig().getNearCache(), cacheConfiguration.getRedisConnectionFactory());
+        cacheBatcher.start(globalConfig.getConfig().getCacheBatching(), cacheConfiguration.getHashOperations().getOperations());
+        streamProducer.start(globalConfig.getConfig().getStreamProducer(), cacheConfiguration.getStreamOperations());
+        localStreamRegistry.start(globalConfig.getConfig().getStreamTransports(), cacheConfiguration.getStreamOperations());
+        scheduleCoordinator.start(globalConfig.getConfig().getScheduler(), cacheConfiguration.getRedisConnectionFactory());
+        cronScheduler.start(globalConfig.getConfig().getScheduler());
+        admissionController.configure(globalConfig.getConfig().getAdmission());
         return globalConfig;
     }
 
@@ -123,7 +148,7 @@ public class Initializer implements SchedulingConfigurer {
 
     private void executeIIFEFunctions(GlobalConfiguration globalConfiguration) {
         // get hash and stream operation objects
-        final HashOperations<String, String, Map<String, Object>> hashOperations = globalConfiguration.getCacheConfiguration().getHashOperations();
+        final HashOperations<String, String, byte[]> hashOperations = globalConfiguration.getCacheConfiguration().getHashOperations();
         final StreamOperations<String, Object, Object> streamOperations = globalConfiguration.getCacheConfiguration().getStreamOperations();
         // traverse configurations and execute functions
         final GlobalConfiguration.GlobalConfig globalConfig = globalConfiguration.getConfig();
@@ -233,7 +258,7 @@ public class Initializer implements SchedulingConfigurer {
             final String environmentName,
             final String tenantId,
             final String logLevel,
-            final HashOperations<String, String, Map<String, Object>> hashOperations,
+            final HashOperations<String, String, byte[]> hashOperations,
             final StreamOperations<String, Object, Object> streamOperations
     ) {
         final HashMap<String, Object> attributes = new HashMap<>();
@@ -249,6 +274,9 @@ public class Initializer implements SchedulingConfigurer {
     private void handleStreamFunctions(GlobalConfiguration globalConfiguration) {
         final StreamConfiguration streamConfiguration = createStreamConfiguration();
         globalConfiguration.setStreamConfiguration(streamConfiguration);
+        final CacheConfiguration cacheConfiguration = globalConfiguration.getCacheConfiguration();
+        redisStreamSubscription.start(globalConfiguration.getConfig().getStreamPoller(), cacheConfiguration.getRedisConnectionFactory(),
+                cacheConfiguration.getStreamOperations());
         executeStreamFunctions(globalConfiguration);
     }
 
@@ -263,7 +291,7 @@ public class Initializer implements SchedulingConfigurer {
 
     private void executeStreamFunctions(final GlobalConfiguration globalConfiguration) {
         // get hash and stream operation objects
-        final HashOperations<String, String, Map<String, Object>> hashOperations = globalConfiguration.getCacheConfiguration().getHashOperations();
+        final HashOperations<String, String, byte[]> hashOperations = globalConfiguration.getCacheConfiguration().getHashOperations();
         final StreamOperations<String, Object, Object> streamOperations = globalConfiguration.getCacheConfiguration().getStreamOperations();
         // traverse configurations and create subscriptions
         final GlobalConfiguration.GlobalConfig globalConfig = globalConfiguration.getConfig();
@@ -290,10 +318,10 @@ public class Initializer implements SchedulingConfigurer {
                         final Context context = createContextForEnvironmentAndTenant(environmentName, tenantId, logLevel, hashOperations, streamOperations);
                         // create consumer function
                         final String query = String.format("environmentName=%s&tenantId=%s", environmentName, tenantId);
-                        final StreamConsumer streamConsumer = getStreamConsumerFunction(codeRepositoryUrl, consumerConfiguration, query);
+                        final Object streamConsumer = getStreamConsumerFunction(codeRepositoryUrl, consumerConfiguration, query);
                         // start/register stream function subscription
                         final String topic = consumerConfiguration.getTopic();
-                        startStreamConsumerSubscription(environmentName, tenantId, topic, context, streamConsumer, globalConfiguration);
+                        startStreamConsumerSubscription(environmentName, tenantId, topic, consumerConfiguration, context, streamConsumer);
                     } catch (Exception e) {
                         // create context
                         final String logLevel = getStreamConsumerLogLevel(globalConfig, streamConfig, environmentConfig, tenantConfig, consumerConfiguration);
@@ -305,7 +333,7 @@ public class Initializer implements SchedulingConfigurer {
         }
     }
 
-    private StreamConsumer getStreamConsumerFunction(
+    private Object getStreamConsumerFunction(
             final String codeServerURL,
             final StreamConfiguration.ConsumerConfiguration configuration,
             final String query
@@ -314,11 +342,11 @@ public class Initializer implements SchedulingConfigurer {
         final String resourceKey = String.format("%s?%s", resourceUrl, query);
         try {
             final Object object = assets.createObject(resourceUrl, resourceKey, configuration.getName(), configuration.getConfig(), configuration.isReload());
-            if (StreamConsumer.class.isAssignableFrom(object.getClass())) {
-                @SuppressWarnings("unchecked") final StreamConsumer handlerFunction = (StreamConsumer) object;
-                return handlerFunction;
+            if (StreamConsumer.class.isAssignableFrom(object.getClass())
+                    || BatchStreamConsumer.class.isAssignableFrom(object.getClass())) {
+                return object;
             } else {
-                throw new FunctionIsNotAStreamConsumerException(String.format("Resource is not a StreamConsumer, url: %s", resourceUrl));
+                throw new FunctionIsNotAStreamConsumerException(String.format("Resource is not a StreamConsumer or BatchStreamConsumer, url: %s", resourceUrl));
             }
         } catch (Exception e) {
             throw new ResourceLoadException(e);
@@ -329,38 +357,84 @@ public class Initializer implements SchedulingConfigurer {
             final String environment,
             final String tenantId,
             final String topic,
+            final StreamConfiguration.ConsumerConfiguration consumerConfiguration,
             final Context context,
-            final StreamConsumer streamConsumer,
-            final GlobalConfiguration globalConfiguration
+            final Object streamConsumer
+    ) {
+        // SUBSCRIBE TO THE LOCAL TOPIC OR EVERY PARTITION OF ENV-TENANT-TOPIC
+        final String streamKey = String.format("%s|%s-%s", environment, tenantId, topic); // default|default-key1
+        if (localStreamRegistry.isLocal(streamKey)) {
+            startPartitionSubscription(streamKey, consumerConfiguration, context, streamConsumer);
+            return;
+        }
+        for (String partitionKey : topicPartitioner.getPartitionKeys(streamKey)) {
+            startPartitionSubscription(partitionKey, consumerConfiguration, context, streamConsumer);
+        }
+    }
+
+    private void startPartitionSubscription(
+            final String environmentTenantTopicName,
+            final StreamConfiguration.ConsumerConfiguration consumerConfiguration,
+            final Context context,
+            final Object streamConsumer
     ) {
         final Logger logger = context.getLogger();
-        // CREATE STREAM AND GROUP FOR ENV-TENANT-TOPIC
-        final String environmentTenantTopicName = String.format("%s|%s-%s", environment, tenantId, topic); // default|default-key1
-        final StreamOperations<String, Object, Object> streamOperations = globalConfiguration.getCacheConfiguration().getStreamOperations();
-        try {
-            final String groupCreationResult = streamOperations.createGroup(environmentTenantTopicName, environmentTenantTopicName);
-            logger.debug("Group '%s' created under topic '%s' with result: %s ", environmentTenantTopicName, environmentTenantTopicName, groupCreationResult);
-        } catch (RedisSystemException e) {
-            if (e.getCause() instanceof RedisBusyException redisBusyException) {
-                logger.debug("Redis BUSY exception occurred while creating group '%s', error: %s", environmentTenantTopicName, redisBusyException.getMessage());
-            } else {
-                logger.error("Exception occurred while creating group '%s', error: '%s'", environmentTenantTopicName, e.getMessage());
-            }
+        final boolean local = localStreamRegistry.isLocal(environmentTenantTopicName);
+        // CREATE STREAM AND GROUP FOR ENV-TENANT-TOPIC OR ITS PARTITION
+        if (!local) {
+            createStreamGroup(environmentTenantTopicName, logger);
         }
         // CREATE REDIS BEAN
-        final StreamListener<String, ObjectRecord<String, byte[]>> redisStreamListener =
-                message -> {
-                    final byte[] key = message.getId().getValue().getBytes(StandardCharsets.UTF_8);
-                    final byte[] value = message.getValue();
-                    filterFunctionExecutor.execute(context, streamConsumer, key, value);
-                };
-        final LettuceConnectionFactory redisConnectionFactory = globalConfiguration.getCacheConfiguration().getRedisConnectionFactory();
-        final Subscription subscription = redisStreamSubscription.createConsumerSubscription(
-                redisConnectionFactory,
-                redisStreamListener,
-                environmentTenantTopicName,
-                executorService
-        );
+        final Subscription subscription;
+        if (streamConsumer instanceof BatchStreamConsumer batchStreamConsumer) {
+            final BatchStreamListener batchStreamListener =
+                    messages -> {
+                        final List<StreamRecord> records = new ArrayList<>(messages.size());
+                        for (ObjectRecord<String, byte[]> message : messages) {
+                            final String recordId = topicPartitioner.qualifyRecordId(environmentTenantTopicName, message.getId().getValue());
+                            records.add(new StreamRecord(recordId.getBytes(StandardCharsets.UTF_8), message.getValue()));
+                        }
+                        try {
+                            filterFunctionExecutor.execute(context, batchStreamConsumer, records);
+                        } catch (RuntimeException e) {
+                            logger.error("Error occurred while consuming %s records of '%s', error: %s", records.size(), environmentTenantTopicName, e.getMessage());
+                            throw e;
+                        }
+                    };
+            subscription = local
+                    ? localStreamRegistry.subscribe(environmentTenantTopicName, batchStreamListener)
+                    : redisStreamSubscription.createBatchConsumerSubscription(
+                    batchStreamListener,
+                    environmentTenantTopicName,
+                    consumerConfiguration.getAckMode(),
+                    consumerConfiguration.getMaxBatchSize(),
+                    consumerConfiguration.getMaxWaitMillis(),
+                    consumerConfiguration.getMaxInFlight()
+            );
+        } else {
+            final StreamConsumer recordStreamConsumer = (StreamConsumer) streamConsumer;
+            final StreamListener<String, ObjectRecord<String, byte[]>> redisStreamListener =
+                    message -> {
+                        final String recordId = topicPartitioner.qualifyRecordId(environmentTenantTopicName, message.getId().getValue());
+                        final byte[] key = recordId.getBytes(StandardCharsets.UTF_8);
+                        final byte[] value = message.getValue();
+                        try {
+                            filterFunctionExecutor.execute(context, recordStreamConsumer, key, value);
+                        } catch (RuntimeException e) {
+                            logger.error("Error occurred while consuming record '%s' of '%s', error: %s", recordId, environmentTenantTopicName, e.getMessage());
+                            throw e;
+                        }
+                    };
+            subscription = local
+                    ? localStreamRegistry.subscribe(environmentTenantTopicName, redisStreamListener)
+                    : redisStreamSubscription.createConsumerSubscription(
+                    redisStreamListener,
+                    environmentTenantTopicName,
+                    consumerConfiguration.getAckMode(),
+                    consumerConfiguration.getConcurrency(),
+                    consumerConfiguration.getMaxInFlight()
+            );
+        }
         // CREATE BEAN
         final String streamConsumerBeanName = String.format("%s-%s", environmentTenantTopicName, streamConsumer.hashCode()); // default|default-key1-00110011
         try {
@@ -376,6 +450,19 @@ public class Initializer implements SchedulingConfigurer {
         logger.debug("Stream consumer created with id '%s', bean: '%s'", streamConsumerBeanName, streamConsumerBean);
     }
 
+    private void createStreamGroup(final String environmentTenantTopicName, final Logger logger) {
+        try {
+            final String groupCreationResult = redisStreamSubscription.createGroup(environmentTenantTopicName);
+            logger.debug("Group '%s' created under topic '%s' with result: %s ", RedisStreamSubscription.GROUP_NAME, environmentTenantTopicName, groupCreationResult);
+        } catch (RedisSystemException e) {
+            if (e.getCause() instanceof RedisBusyException redisBusyException) {
+                logger.debug("Redis BUSY exception occurred while creating group '%s', error: %s", environmentTenantTopicName, redisBusyException.getMessage());
+            } else {
+                logger.error("Exception occurred while creating group '%s', error: '%s'", environmentTenantTopicName, e.getMessage());
+            }
+        }
+    }
+
     private void handleScheduledFunctions(GlobalConfiguration globalConfiguration) {
         final ScheduledConfiguration scheduledConfiguration = createScheduledConfiguration();
         globalConfiguration.setScheduledConfiguration(scheduledConfiguration);
@@ -393,7 +480,7 @@ public class Initializer implements SchedulingConfigurer {
 
     private void executeScheduledFunctions(final GlobalConfiguration globalConfiguration) {
         // get hash and stream operation objects
-        final HashOperations<String, String, Map<String, Object>> hashOperations = globalConfiguration.getCacheConfiguration().getHashOperations();
+        final HashOperations<String, String, byte[]> hashOperations = globalConfiguration.getCacheConfiguration().getHashOperations();
         final StreamOperations<String, Object, Object> streamOperations = globalConfiguration.getCacheConfiguration().getStreamOperations();
         // traverse configurations and create schedules
         final GlobalConfiguration.GlobalConfig globalConfig = globalConfiguration.getConfig();
@@ -422,7 +509,8 @@ public class Initializer implements SchedulingConfigurer {
                         final String query = String.format("environmentName=%s&tenantId=%s", environmentName, tenantId);
                         final ContextConsumer contextConsumer = getScheduledFunction(codeRepositoryUrl, scheduledFunctionConfiguration, query);
                         // schedule functions
-                        scheduleFunction(context, contextConsumer, scheduledFunctionConfiguration);
+                        final String tenantKey = String.format("%s|%s", environmentName, tenantId);
+                        scheduleFunction(tenantKey, context, contextConsumer, scheduledFunctionConfiguration);
                     } catch (Exception e) {
                         // create context
                         final String logLevel = getScheduledFunctionLogLevel(globalConfig, scheduledConfig, environmentConfig, tenantConfig, scheduledFunctionConfiguration);
@@ -480,13 +568,12 @@ public class Initializer implements SchedulingConfigurer {
     }
 
     private void scheduleFunction(
+            final String tenantKey,
             final Context context,
             final ContextConsumer contextConsumer,
             final ScheduledConfiguration.FunctionConfiguration functionConfiguration
     ) {
         final Logger logger = context.getLogger();
-        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(10_000, threadFactory);
-        scheduledTaskRegistrar.setScheduler(executor);
         final String cron = functionConfiguration.getCron();
         final String zone = functionConfiguration.getZone();
         final String scheduledFunctionName = contextConsumer.getClass().getName();
@@ -494,18 +581,20 @@ public class Initializer implements SchedulingConfigurer {
             final TimeZone timeZone = Optional.ofNullable(zone)
                     .map(TimeZone::getTimeZone)
                     .orElse(TimeZone.getTimeZone(ZoneOffset.UTC));
-            final CronTrigger cronTrigger = new CronTrigger(cron, timeZone);
-            final CronTask cronTask = new CronTask(() -> filterFunctionExecutor.execute(context, contextConsumer), cronTrigger);
-            scheduledTaskRegistrar.scheduleCronTask(cronTask);
+            final CronExpression cronExpression = CronExpression.parse(cron);
+            final String functionKey = String.format("%s-%s", functionConfiguration.getName(), functionConfiguration.getVersion());
+            cronScheduler.schedule(tenantKey, functionKey, cronExpression, timeZone.toZoneId(), functionConfiguration.getOverlap(), () -> {
+                try {
+                    filterFunctionExecutor.execute(context, contextConsumer);
+                } catch (RuntimeException e) {
+                    logger.error("Error occurred while running scheduled function '%s', error: %s", scheduledFunctionName, e.getMessage());
+                    throw e;
+                }
+            });
             logger.debug("Scheduled function '%s' with cron '%s' and time zone '%s'", scheduledFunctionName, cron, timeZone.getDisplayName());
         } else {
             logger.error("Cron is not set for scheduled function '%s', will not schedule it.", scheduledFunctionName);
         }
     }
 
-    @Override
-    public void configureTasks(final ScheduledTaskRegistrar taskRegistrar) {
-        this.scheduledTaskRegistrar = taskRegistrar;
-    }
-
 }
@@ -0,0 +1,177 @@
+package io.archura.platform.internal;
+
+import io.archura.platform.api.attribute.GlobalKeys;
+import io.archura.platform.api.logger.Logger;
+import io.archura.platform.internal.configuration.ConfigurationLoader;
+import io.archura.platform.internal.configuration.GlobalConfiguration;
+import io.archura.platform.internal.pipeline.PipelineRegistry;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Loads the environment and tenant configurations and compiles their pipelines before the application receives traffic,
+ * so the first requests after a deployment do not pay for configuration and code downloads.
+ */
+@RequiredArgsConstructor
+public class Prefetcher {
+
+    private final boolean enabled;
+    private final int concurrency;
+    private final String configRepositoryUrl;
+    private final ConfigurationLoader configurationLoader;
+    private final PipelineRegistry pipelineRegistry;
+    private final ExecutorService executorService;
+    private final Assets assets;
+
+    public void prefetch(final GlobalConfiguration globalConfiguration) {
+        if (!enabled) {
+            return;
+        }
+        final Logger logger = getLogger(globalConfiguration);
+        final long start = System.nanoTime();
+        final Map<String, Set<String>> environmentTenants = discover(globalConfiguration);
+        final List<StageReport> reports = new ArrayList<>();
+
+        reports.add(runStage("environment configurations", environmentTenants.keySet(), logger,
+                environmentName -> loadEnvironmentConfiguration(globalConfiguration, environmentName)));
+
+        final List<TenantRoute> tenants = environmentTenants.entrySet()
+                .stream()
+                .filter(entry -> globalConfiguration.getEnvironments().containsKey(entry.getKey()))
+                .flatMap(entry -> entry.getValue().stream().map(tenantId -> new TenantRoute(entry.getKey(), tenantId, null)))
+                .toList();
+        reports.add(runStage("tenant configurations", tenants, logger,
+                tenant -> loadTenantConfiguration(globalConfiguration, tenant.environmentName(), tenant.tenantId())));
+
+        final List<TenantRoute> routes = getRoutes(globalConfiguration);
+        reports.add(runStage("pipelines", routes, logger, route -> compilePipeline(globalConfiguration, route)));
+
+        for (StageReport report : reports) {
+            logger.info("Prefetch stage '%s' completed in %s ms, items: %s, failures: %s",
+                    report.name(), report.duration().toMillis(), report.items(), report.failures());
+        }
+        logger.info("Prefetch completed in %s ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    private Map<String, Set<String>> discover(final GlobalConfiguration globalConfiguration) {
+        final Map<String, Set<String>> environmentTenants = new LinkedHashMap<>();
+        globalConfiguration.getEnvironments().forEach((environmentName, environmentConfiguration) ->
+                environmentTenants.computeIfAbsent(environmentName, key -> new LinkedHashSet<>()).addAll(environmentConfiguration.getTenants().keySet()));
+        globalConfiguration.getConfig().getPrefetch().forEach((environmentName, tenantIds) ->
+                environmentTenants.computeIfAbsent(environmentName, key -> new LinkedHashSet<>()).addAll(tenantIds));
+        if (nonNull(globalConfiguration.getIifeConfiguration())) {
+            globalConfiguration.getIifeConfiguration().getEnvironments().forEach((environmentName, environmentConfiguration) ->
+                    environmentTenants.computeIfAbsent(environmentName, key -> new LinkedHashSet<>()).addAll(environmentConfiguration.getTenants().keySet()));
+        }
+        if (nonNull(globalConfiguration.getStreamConfiguration())) {
+            globalConfiguration.getStreamConfiguration().getEnvironments().forEach((environmentName, environmentConfiguration) ->
+                    environmentTenants.computeIfAbsent(environmentName, key -> new LinkedHashSet<>()).addAll(environmentConfiguration.getTenants().keySet()));
+        }
+        if (nonNull(globalConfiguration.getScheduledConfiguration())) {
+            globalConfiguration.getScheduledConfiguration().getEnvironments().forEach((environmentName, environmentConfiguration) ->
+                    environmentTenants.computeIfAbsent(environmentName, key -> new LinkedHashSet<>()).addAll(environmentConfiguration.getTenants().keySet()));
+        }
+        return environmentTenants;
+    }
+
+    private void loadEnvironmentConfiguration(final GlobalConfiguration globalConfiguration, final String environmentName) {
+        if (globalConfiguration.getEnvironments().containsKey(environmentName)) {
+            return;
+        }
+        final String url = String.format(ConfigurationLoader.ENVIRONMENT_CONFIGURATION_URL, configRepositoryUrl, environmentName);
+        final GlobalConfiguration.EnvironmentConfiguration environmentConfiguration = configurationLoader.load(url, GlobalConfiguration.EnvironmentConfiguration.class);
+        globalConfiguration.getEnvironments().putIfAbsent(environmentName, environmentConfiguration);
+    }
+
+    private void loadTenantConfiguration(final GlobalConfiguration globalConfiguration, final String environmentName, final String tenantId) {
+        final GlobalConfiguration.EnvironmentConfiguration environmentConfiguration = globalConfiguration.getEnvironments().get(environmentName);
+        if (environmentConfiguration.getTenants().containsKey(tenantId)) {
+            return;
+        }
+        final String url = String.format(ConfigurationLoader.TENANT_CONFIGURATION_URL, configRepositoryUrl, environmentName, tenantId);
+        final GlobalConfiguration.TenantConfiguration tenantConfiguration = configurationLoader.load(url, GlobalConfiguration.TenantConfiguration.class);
+        environmentConfiguration.getTenants().putIfAbsent(tenantId, tenantConfiguration);
+    }
+
+    private List<TenantRoute> getRoutes(final GlobalConfiguration globalConfiguration) {
+        final List<TenantRoute> routes = new ArrayList<>();
+        routes.add(new TenantRoute(null, null, null));
+        globalConfiguration.getEnvironments().forEach((environmentName, environmentConfiguration) -> {
+            routes.add(new TenantRoute(environmentName, null, null));
+            environmentConfiguration.getTenants().forEach((tenantId, tenantConfiguration) -> {
+                routes.add(new TenantRoute(environmentName, tenantId, null));
+                tenantConfiguration.getRoutes().keySet().forEach(routeId -> routes.add(new TenantRoute(environmentName, tenantId, routeId)));
+            });
+        });
+        return routes;
+    }
+
+    private void compilePipeline(final GlobalConfiguration globalConfiguration, final TenantRoute route) {
+        if (nonNull(route.routeId())) {
+            pipelineRegistry.getRoutePipeline(globalConfiguration, route.environmentName(), route.tenantId(), route.routeId());
+        } else if (nonNull(route.tenantId())) {
+            pipelineRegistry.getTenantSegment(globalConfiguration, route.environmentName(), route.tenantId());
+        } else if (nonNull(route.environmentName())) {
+            pipelineRegistry.getEnvironmentSegment(globalConfiguration, route.environmentName());
+        } else {
+            pipelineRegistry.getGlobalSegment(globalConfiguration);
+        }
+    }
+
+    private <T> StageReport runStage(final String name, final Collection<T> items, final Logger logger, final Consumer<T> task) {
+        final long start = System.nanoTime();
+        final Semaphore permits = new Semaphore(Math.max(1, concurrency));
+        final List<Future<?>> futures = items.stream()
+                .<Future<?>>map(item -> executorService.submit(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        task.accept(item);
+                    } finally {
+                        permits.release();
+                    }
+                }))
+                .toList();
+        int failures = 0;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                failures++;
+                logger.error("Prefetch stage '%s' failed for an item, error: %s", name, e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failures++;
+            }
+        }
+        return new StageReport(name, items.size(), failures, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private Logger getLogger(final GlobalConfiguration globalConfiguration) {
+        final Map<String, Object> attributes = new HashMap<>();
+        attributes.put(GlobalKeys.REQUEST_LOG_LEVEL.getKey(), globalConfiguration.getConfig().getLogLevel());
+        return assets.getLogger(attributes);
+    }
+
+    private record TenantRoute(String environmentName, String tenantId, String routeId) {
+    }
+
+    private record StageReport(String name, int items, int failures, Duration duration) {
+    }
+
+}
@@ -0,0 +1,143 @@
+package io.archura.platform.internal.admission;
+
+import io.archura.platform.internal.configuration.GlobalConfiguration;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrency limit adapted to the observed latency with the gradient of the long-term and the sampled round trip time.
+ * <ul>
+ *     <li>The long-term round trip time is an exponential average of the samples. While the samples stay near it
+ *     the limit grows by the square root of the limit, while they rise above it the limit shrinks by the gradient.</li>
+ *     <li>Samples taken while less than half of the limit is in use do not grow the limit.</li>
+ *     <li>Callers above the limit wait in a bounded queue for a released permit, callers beyond the queue are rejected.</li>
+ * </ul>
+ */
+class AdaptiveLimiter {
+
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private volatile int limit;
+    private volatile int inFlight;
+    private volatile int waiting;
+    private double estimatedLimit;
+    private double longRttNanos;
+    private GlobalConfiguration.AdmissionConfiguration configuration;
+
+    AdaptiveLimiter(final GlobalConfiguration.AdmissionConfiguration configuration) {
+        this.configuration = configuration;
+        this.estimatedLimit = clamp(configuration.getInitialLimit(), configuration);
+        this.limit = (int) estimatedLimit;
+    }
+
+    void configure(final GlobalConfiguration.AdmissionConfiguration configuration) {
+        lock.lock();
+        try {
+            this.configuration = configuration;
+            this.estimatedLimit = clamp(estimatedLimit, configuration);
+            this.limit = (int) estimatedLimit;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Acquires a permit, waits in the queue for the queue timeout while the limit is reached.
+     *
+     * @return true if a permit was acquired.
+     * @throws InterruptedException if the caller is interrupted while waiting.
+     */
+    boolean acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < limit) {
+                inFlight++;
+                return true;
+            }
+            if (waiting >= configuration.getQueueSize()) {
+                return false;
+            }
+            waiting++;
+            try {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(configuration.getQueueTimeoutMillis());
+                while (inFlight >= limit) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a permit and adapts the limit to its round trip time.
+     *
+     * @param rttNanos round trip time of the permit.
+     */
+    void release(final long rttNanos) {
+        lock.lock();
+        try {
+            final int sampledInFlight = inFlight;
+            inFlight--;
+            final int previousLimit = limit;
+            update(Math.max(1, rttNanos), sampledInFlight);
+            if (limit > previousLimit) {
+                released.signalAll();
+            } else {
+                released.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getInFlight() {
+        return inFlight;
+    }
+
+    int getWaiting() {
+        return waiting;
+    }
+
+    private void update(final double rttNanos, final int sampledInFlight) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) / Math.max(1, configuration.getLongWindow());
+        }
+        if (longRttNanos / rttNanos > 2) {
+            // latency dropped well below the long-term average, let the average catch up quickly
+            longRttNanos *= 0.95;
+        }
+        if (sampledInFlight < estimatedLimit / 2) {
+            return;
+        }
+        final double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, configuration.getTolerance() * longRttNanos / rttNanos));
+        final double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        final double smoothing = configuration.getSmoothing();
+        estimatedLimit = clamp(estimatedLimit * (1 - smoothing) + newLimit * smoothing, configuration);
+        limit = (int) estimatedLimit;
+    }
+
+    private static double clamp(final double value, final GlobalConfiguration.AdmissionConfiguration configuration) {
+        final int minLimit = Math.max(1, configuration.getMinLimit());
+        return Math.max(minLimit, Math.min(Math.max(minLimit, configuration.getMaxLimit()), value));
+    }
+
+}
@@ -0,0 +1,121 @@
+package io.archura.platform.internal.admission;
+
+import io.archura.platform.internal.configuration.GlobalConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Admits the requests of each tenant route up to its adaptive concurrency limit.
+ * <p>
+ * Every environment, tenant and route has its own {@link AdaptiveLimiter}, a request above the limit waits in the bounded queue
+ * of its route and is rejected when the queue is full or the queue timeout passes.
+ */
+public class AdmissionController {
+
+    private static final Permit UNLIMITED = new Permit(null, 0);
+
+    private final MeterRegistry meterRegistry;
+    private final Map<RouteKey, Route> routes = new ConcurrentHashMap<>();
+    private volatile GlobalConfiguration.AdmissionConfiguration configuration;
+
+    public AdmissionController(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Applies the admission configuration, the limits adapted so far are kept within the new bounds.
+     *
+     * @param admissionConfiguration admission configuration.
+     */
+    public synchronized void configure(final GlobalConfiguration.AdmissionConfiguration admissionConfiguration) {
+        if (isNull(admissionConfiguration) || !admissionConfiguration.isEnabled()) {
+            this.configuration = null;
+            return;
+        }
+        routes.values().forEach(route -> route.limiter().configure(admissionConfiguration));
+        this.configuration = admissionConfiguration;
+    }
+
+    /**
+     * Acquires a permit for a request of the route.
+     *
+     * @param tenantKey environment and tenant key.
+     * @param routeId   route id.
+     * @return permit to release when the request completes, empty if the request is rejected.
+     * @throws InterruptedException if the request is interrupted while waiting in the queue.
+     */
+    public Optional<Permit> acquire(final String tenantKey, final String routeId) throws InterruptedException {
+        final GlobalConfiguration.AdmissionConfiguration admissionConfiguration = configuration;
+        if (isNull(admissionConfiguration)) {
+            return Optional.of(UNLIMITED);
+        }
+        final Route route = routes.computeIfAbsent(new RouteKey(tenantKey, routeId), key -> createRoute(key, admissionConfiguration));
+        if (route.limiter().acquire()) {
+            return Optional.of(new Permit(route.limiter(), System.nanoTime()));
+        }
+        route.rejected().increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the seconds a rejected client should wait before retrying.
+     *
+     * @return retry after seconds.
+     */
+    public long getRetryAfterSeconds() {
+        final GlobalConfiguration.AdmissionConfiguration admissionConfiguration = configuration;
+        return isNull(admissionConfiguration) ? 0 : admissionConfiguration.getRetryAfterSeconds();
+    }
+
+    private Route createRoute(final RouteKey key, final GlobalConfiguration.AdmissionConfiguration admissionConfiguration) {
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(admissionConfiguration);
+        Gauge.builder("archura.admission.limit", limiter, AdaptiveLimiter::getLimit)
+                .tag("tenant", key.tenantKey()).tag("route", key.routeId()).register(meterRegistry);
+        Gauge.builder("archura.admission.in.flight", limiter, AdaptiveLimiter::getInFlight)
+                .tag("tenant", key.tenantKey()).tag("route", key.routeId()).register(meterRegistry);
+        Gauge.builder("archura.admission.queued", limiter, AdaptiveLimiter::getWaiting)
+                .tag("tenant", key.tenantKey()).tag("route", key.routeId()).register(meterRegistry);
+        final Counter rejected = Counter.builder("archura.admission.rejected")
+                .tag("tenant", key.tenantKey()).tag("route", key.routeId()).register(meterRegistry);
+        return new Route(limiter, rejected);
+    }
+
+    /**
+     * Permit of an admitted request.
+     */
+    public static final class Permit {
+
+        private final AdaptiveLimiter limiter;
+        private final long startNanos;
+
+        private Permit(final AdaptiveLimiter limiter, final long startNanos) {
+            this.limiter = limiter;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Releases the permit and feeds the round trip time of the request to the limiter of its route.
+         */
+        public void release() {
+            if (isNull(limiter)) {
+                return;
+            }
+            limiter.release(System.nanoTime() - startNanos);
+        }
+
+    }
+
+    private record RouteKey(String tenantKey, String routeId) {
+    }
+
+    private record Route(AdaptiveLimiter limiter, Counter rejected) {
+    }
+
+}
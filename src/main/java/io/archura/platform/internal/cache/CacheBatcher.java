@@ -0,0 +1,203 @@
+package io.archura.platform.internal.cache;
+
+import io.archura.platform.internal.concurrent.BatchFlusher;
+import io.archura.platform.internal.configuration.GlobalConfiguration;
+import io.lettuce.core.RedisCommandInterruptedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Coalesces the tenant cache reads and writes of concurrent requests into pipelined round trips.
+ * <p>
+ * Operations are queued and flushed by a single thread once the batch window has passed or the batch is full.
+ * A flush sends one {@code HMSET} per written hash followed by one {@code HMGET} per read hash in a single pipeline,
+ * then completes the waiting callers. Operations of one flush are concurrent, so writes are applied before reads.
+ * When the queue is full the caller executes its operation directly.
+ */
+public class CacheBatcher implements AutoCloseable {
+
+    private final MeterRegistry meterRegistry;
+    private volatile BatchFlusher<Operation> flusher;
+    private volatile RedisOperations<String, ?> redisOperations;
+    private DistributionSummary batchSize;
+    private DistributionSummary batchCommands;
+    private Counter overflows;
+
+    public CacheBatcher(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Starts batching if it is enabled in the configuration.
+     *
+     * @param configuration   cache batching configuration.
+     * @param redisOperations redis operations of the tenant caches.
+     */
+    public synchronized void start(final GlobalConfiguration.CacheBatchingConfiguration configuration, final RedisOperations<String, ?> redisOperations) {
+        close();
+        if (isNull(configuration) || !configuration.isEnabled()) {
+            return;
+        }
+        this.redisOperations = redisOperations;
+        this.batchSize = DistributionSummary.builder("archura.cache.batch.size").register(meterRegistry);
+        this.batchCommands = DistributionSummary.builder("archura.cache.batch.commands").register(meterRegistry);
+        this.overflows = Counter.builder("archura.cache.batch.overflows").register(meterRegistry);
+        this.flusher = new BatchFlusher<>("archura-cache-batcher", configuration.getQueueSize(), configuration.getMaxBatchSize(),
+                TimeUnit.MICROSECONDS.toNanos(configuration.getWindowMicros()), this::execute);
+    }
+
+    public boolean isStarted() {
+        return nonNull(flusher);
+    }
+
+    /**
+     * Reads the fields of a tenant hash in the next batch.
+     *
+     * @param tenantKey tenant hash key.
+     * @param hashKeys  fields to read.
+     * @return values in the order of the fields, null for absent fields.
+     */
+    public List<byte[]> read(final String tenantKey, final Collection<String> hashKeys) {
+        if (hashKeys.isEmpty()) {
+            // an empty HMGET is rejected by Redis and would fail the whole pipeline
+            return List.of();
+        }
+        return submit(new Operation(tenantKey, new ArrayList<>(hashKeys), null, new CompletableFuture<>()));
+    }
+
+    /**
+     * Writes the fields of a tenant hash in the next batch and waits until they are written.
+     *
+     * @param tenantKey tenant hash key.
+     * @param values    fields and values to write.
+     */
+    public void write(final String tenantKey, final Map<String, byte[]> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        submit(new Operation(tenantKey, null, values, new CompletableFuture<>()));
+    }
+
+    @Override
+    public synchronized void close() {
+        final BatchFlusher<Operation> batchFlusher = flusher;
+        if (nonNull(batchFlusher)) {
+            batchFlusher.close();
+            flusher = null;
+        }
+    }
+
+    private List<byte[]> submit(final Operation operation) {
+        final BatchFlusher<Operation> batchFlusher = flusher;
+        if (isNull(batchFlusher) || !batchFlusher.offer(operation)) {
+            overflows.increment();
+            execute(List.of(operation));
+        }
+        try {
+            // an interruptible wait, the deadline of a request interrupts callers waiting for a slow batch
+            return operation.result().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RedisCommandInterruptedException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    private void execute(final List<Operation> batch) {
+        final Map<String, Map<String, byte[]>> writes = new LinkedHashMap<>();
+        final Map<String, Set<String>> reads = new LinkedHashMap<>();
+        for (Operation operation : batch) {
+            if (operation.isWrite()) {
+                writes.computeIfAbsent(operation.tenantKey(), key -> new LinkedHashMap<>()).putAll(operation.values());
+            } else {
+                reads.computeIfAbsent(operation.tenantKey(), key -> new LinkedHashSet<>()).addAll(operation.hashKeys());
+            }
+        }
+        try {
+            final List<Object> results = redisOperations.executePipelined((RedisCallback<Object>) connection -> {
+                writes.forEach((tenantKey, values) -> writeHash(connection, tenantKey, values));
+                reads.forEach((tenantKey, hashKeys) -> readHash(connection, tenantKey, hashKeys));
+                return null;
+            }, RedisSerializer.byteArray());
+            // status replies of HMSET are not part of the pipeline results, the HMGET replies are the last ones
+            final Map<String, Map<String, byte[]>> readValues = new LinkedHashMap<>();
+            int index = results.size() - reads.size();
+            for (Map.Entry<String, Set<String>> entry : reads.entrySet()) {
+                @SuppressWarnings("unchecked") final List<byte[]> values = (List<byte[]>) results.get(index++);
+                final Map<String, byte[]> tenantValues = new LinkedHashMap<>();
+                int position = 0;
+                for (String hashKey : entry.getValue()) {
+                    tenantValues.put(hashKey, values.get(position++));
+                }
+                readValues.put(entry.getKey(), tenantValues);
+            }
+            for (Operation operation : batch) {
+                if (operation.isWrite()) {
+                    operation.result().complete(null);
+                } else {
+                    final Map<String, byte[]> tenantValues = readValues.get(operation.tenantKey());
+                    final List<byte[]> values = new ArrayList<>(operation.hashKeys().size());
+                    for (String hashKey : operation.hashKeys()) {
+                        values.add(tenantValues.get(hashKey));
+                    }
+                    operation.result().complete(values);
+                }
+            }
+            batchSize.record(batch.size());
+            batchCommands.record(writes.size() + reads.size());
+        } catch (RuntimeException e) {
+            for (Operation operation : batch) {
+                operation.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    private void writeHash(final RedisConnection connection, final String tenantKey, final Map<String, byte[]> values) {
+        final Map<byte[], byte[]> fields = new LinkedHashMap<>(values.size() * 2);
+        values.forEach((hashKey, value) -> fields.put(hashKey.getBytes(StandardCharsets.UTF_8), value));
+        connection.hashCommands().hMSet(tenantKey.getBytes(StandardCharsets.UTF_8), fields);
+    }
+
+    private void readHash(final RedisConnection connection, final String tenantKey, final Set<String> hashKeys) {
+        final byte[][] fields = new byte[hashKeys.size()][];
+        int index = 0;
+        for (String hashKey : hashKeys) {
+            fields[index++] = hashKey.getBytes(StandardCharsets.UTF_8);
+        }
+        connection.hashCommands().hMGet(tenantKey.getBytes(StandardCharsets.UTF_8), fields);
+    }
+
+    private record Operation(String tenantKey, List<String> hashKeys, Map<String, byte[]> values, CompletableFuture<List<byte[]>> result) {
+
+        boolean isWrite() {
+            return nonNull(values);
+        }
+
+    }
+
+}
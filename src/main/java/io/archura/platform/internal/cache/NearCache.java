@@ -0,0 +1,291 @@
+package io.archura.platform.internal.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * In-process copy of the hot entries of a tenant cache.
+ * <ul>
+ *     <li>Entries are kept in LRU order in lock striped segments, bounded by entry count and estimated weight.</li>
+ *     <li>Entries expire after the TTL, which also bounds staleness when an invalidation message is lost.</li>
+ *     <li>A value read from the remote cache is only stored if no invalidation hit its segment while it was being read.</li>
+ *     <li>Values are copied when they are stored and on every hit, callers can modify the stored and returned maps.</li>
+ * </ul>
+ */
+public class NearCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final long ttlNanos;
+    private final Consumer<Collection<String>> invalidationPublisher;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a near cache.
+     *
+     * @param maxSize               maximum number of entries.
+     * @param maxWeight             maximum estimated size of the entries in bytes.
+     * @param ttlSeconds            seconds an entry is kept.
+     * @param invalidationPublisher notifies the other nodes about the changed hash keys.
+     */
+    public NearCache(final int maxSize, final long maxWeight, final long ttlSeconds, final Consumer<Collection<String>> invalidationPublisher) {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(Math.max(1, maxSize / SEGMENTS), Math.max(1, maxWeight / SEGMENTS));
+        }
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    /**
+     * Returns the cached value of the hash key.
+     *
+     * @param hashKey hash key.
+     * @return cached value, a cached value may hold null for an absent key, null if the key is not cached.
+     */
+    public CachedValue get(final String hashKey) {
+        final CachedValue cachedValue = segmentOf(hashKey).get(hashKey, System.nanoTime());
+        if (isNull(cachedValue)) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new CachedValue(copy(cachedValue.value()));
+    }
+
+    /**
+     * Returns the invalidation version of the segment of the hash key, pass it to {@link #put(String, Map, long)}.
+     *
+     * @param hashKey hash key.
+     * @return segment version.
+     */
+    public long version(final String hashKey) {
+        return segmentOf(hashKey).version;
+    }
+
+    /**
+     * Stores a value read from the remote cache, unless the segment was invalidated since the version was taken.
+     *
+     * @param hashKey hash key.
+     * @param value   value, null for an absent key.
+     * @param version segment version taken before the value was read.
+     */
+    public void put(final String hashKey, final Map<String, Object> value, final long version) {
+        // the caller keeps the stored value, a copy is cached so later changes of the caller do not reach the cache
+        segmentOf(hashKey).put(hashKey, copy(value), version, System.nanoTime() + ttlNanos);
+    }
+
+    /**
+     * Evicts the hash keys locally and on the other nodes.
+     *
+     * @param hashKeys changed hash keys.
+     */
+    public void invalidate(final Collection<String> hashKeys) {
+        evict(hashKeys);
+        invalidationPublisher.accept(hashKeys);
+    }
+
+    /**
+     * Evicts the hash keys locally.
+     *
+     * @param hashKeys changed hash keys.
+     */
+    public void evict(final Collection<String> hashKeys) {
+        for (String hashKey : hashKeys) {
+            segmentOf(hashKey).remove(hashKey);
+        }
+    }
+
+    /**
+     * Evicts all entries locally.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getSize() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.entries.size();
+        }
+        return size;
+    }
+
+    public long getWeight() {
+        long weight = 0;
+        for (Segment segment : segments) {
+            weight += segment.weight;
+        }
+        return weight;
+    }
+
+    private Segment segmentOf(final String hashKey) {
+        final int hash = hashKey.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static long estimateWeight(final Object value) {
+        if (isNull(value)) {
+            return 16;
+        }
+        if (value instanceof CharSequence charSequence) {
+            return 40 + 2L * charSequence.length();
+        }
+        if (value instanceof Map<?, ?> map) {
+            long weight = 48;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                weight += 32 + estimateWeight(entry.getKey()) + estimateWeight(entry.getValue());
+            }
+            return weight;
+        }
+        if (value instanceof Collection<?> collection) {
+            long weight = 40;
+            for (Object element : collection) {
+                weight += 8 + estimateWeight(element);
+            }
+            return weight;
+        }
+        return 16;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T copy(final T value) {
+        if (value instanceof Map<?, ?> map) {
+            final Map<Object, Object> copy = new LinkedHashMap<>(map.size() * 2);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                copy.put(entry.getKey(), copy(entry.getValue()));
+            }
+            return (T) copy;
+        }
+        if (value instanceof List<?> list) {
+            final List<Object> copy = new ArrayList<>(list.size());
+            for (Object element : list) {
+                copy.add(copy(element));
+            }
+            return (T) copy;
+        }
+        return value;
+    }
+
+    /**
+     * A cached value, the value is null if the hash key does not exist in the remote cache.
+     *
+     * @param value cached value.
+     */
+    public record CachedValue(Map<String, Object> value) {
+    }
+
+    private record Node(Map<String, Object> value, long weight, long expiresAt) {
+    }
+
+    private final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Node> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final int maxSize;
+        private final long maxWeight;
+        private volatile long version;
+        private volatile long weight;
+
+        private Segment(final int maxSize, final long maxWeight) {
+            this.maxSize = maxSize;
+            this.maxWeight = maxWeight;
+        }
+
+        private CachedValue get(final String hashKey, final long now) {
+            lock.lock();
+            try {
+                final Node node = entries.get(hashKey);
+                if (isNull(node)) {
+                    return null;
+                }
+                if (now - node.expiresAt() >= 0) {
+                    entries.remove(hashKey);
+                    weight -= node.weight();
+                    evictions.increment();
+                    return null;
+                }
+                return new CachedValue(node.value());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void put(final String hashKey, final Map<String, Object> value, final long expectedVersion, final long expiresAt) {
+            final long nodeWeight = estimateWeight(hashKey) + estimateWeight(value);
+            if (nodeWeight > maxWeight) {
+                return;
+            }
+            lock.lock();
+            try {
+                if (version != expectedVersion) {
+                    return;
+                }
+                final Node previous = entries.put(hashKey, new Node(value, nodeWeight, expiresAt));
+                weight += nodeWeight - (nonNull(previous) ? previous.weight() : 0);
+                final Iterator<Node> iterator = entries.values().iterator();
+                while ((entries.size() > maxSize || weight > maxWeight) && iterator.hasNext()) {
+                    final Node eldest = iterator.next();
+                    iterator.remove();
+                    weight -= eldest.weight();
+                    evictions.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void remove(final String hashKey) {
+            lock.lock();
+            try {
+                version++;
+                final Node removed = entries.remove(hashKey);
+                if (nonNull(removed)) {
+                    weight -= removed.weight();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void clear() {
+            lock.lock();
+            try {
+                version++;
+                entries.clear();
+                weight = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+    }
+
+}
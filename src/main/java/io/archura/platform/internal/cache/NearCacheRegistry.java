@@ -0,0 +1,141 @@
+package io.archura.platform.internal.cache;
+
+import io.archura.platform.internal.configuration.GlobalConfiguration;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Creates the near caches of the tenants and keeps them consistent across nodes.
+ * <p>
+ * A write to a tenant cache publishes the changed hash keys on the {@code archura:near-cache:<environment|tenant>} channel,
+ * every other node evicts them from its near cache of the tenant.
+ */
+@RequiredArgsConstructor
+public class NearCacheRegistry implements AutoCloseable {
+
+    private static final String CHANNEL_PREFIX = "archura:near-cache:";
+    private static final String SEPARATOR = "\n";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, NearCache> nearCaches = new ConcurrentHashMap<>();
+    private final LongAdder publishFailures = new LongAdder();
+    private final MeterRegistry meterRegistry;
+    private volatile GlobalConfiguration.NearCacheConfiguration configuration;
+    private volatile StringRedisTemplate redisTemplate;
+    private volatile RedisMessageListenerContainer listenerContainer;
+
+    /**
+     * Enables the near caches if they are enabled in the configuration and subscribes to the invalidation channels.
+     *
+     * @param nearCacheConfiguration near cache configuration.
+     * @param redisConnectionFactory connection factory of the tenant caches.
+     */
+    public synchronized void start(
+            final GlobalConfiguration.NearCacheConfiguration nearCacheConfiguration,
+            final RedisConnectionFactory redisConnectionFactory
+    ) {
+        close();
+        nearCaches.values().forEach(NearCache::clear);
+        nearCaches.clear();
+        if (isNull(nearCacheConfiguration) || !nearCacheConfiguration.isEnabled()) {
+            this.configuration = null;
+            return;
+        }
+        final StringRedisTemplate template = new StringRedisTemplate(redisConnectionFactory);
+        template.afterPropertiesSet();
+        final RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(this::onMessage, new PatternTopic(CHANNEL_PREFIX + "*"));
+        container.afterPropertiesSet();
+        container.start();
+        FunctionCounter.builder("archura.near.cache.invalidation.publish.failures", publishFailures, LongAdder::sum).register(meterRegistry);
+        this.redisTemplate = template;
+        this.listenerContainer = container;
+        this.configuration = nearCacheConfiguration;
+    }
+
+    /**
+     * Returns the near cache of the tenant.
+     *
+     * @param tenantKey environment and tenant key of the tenant cache.
+     * @return near cache, empty if near caches are disabled.
+     */
+    public Optional<NearCache> get(final String tenantKey) {
+        final GlobalConfiguration.NearCacheConfiguration nearCacheConfiguration = configuration;
+        if (isNull(nearCacheConfiguration)) {
+            return Optional.empty();
+        }
+        return Optional.of(nearCaches.computeIfAbsent(tenantKey, key -> createNearCache(key, nearCacheConfiguration)));
+    }
+
+    @Override
+    public synchronized void close() {
+        if (nonNull(listenerContainer)) {
+            listenerContainer.stop();
+            try {
+                listenerContainer.destroy();
+            } catch (Exception e) {
+                // the container is dropped anyway
+            }
+            listenerContainer = null;
+        }
+    }
+
+    private NearCache createNearCache(final String tenantKey, final GlobalConfiguration.NearCacheConfiguration nearCacheConfiguration) {
+        final NearCache nearCache = new NearCache(nearCacheConfiguration.getMaxSize(), nearCacheConfiguration.getMaxWeight(),
+                nearCacheConfiguration.getTtl(), hashKeys -> publish(tenantKey, hashKeys));
+        FunctionCounter.builder("archura.near.cache.hits", nearCache, NearCache::getHits).tag("tenant", tenantKey).register(meterRegistry);
+        FunctionCounter.builder("archura.near.cache.misses", nearCache, NearCache::getMisses).tag("tenant", tenantKey).register(meterRegistry);
+        FunctionCounter.builder("archura.near.cache.evictions", nearCache, NearCache::getEvictions).tag("tenant", tenantKey).register(meterRegistry);
+        Gauge.builder("archura.near.cache.size", nearCache, NearCache::getSize).tag("tenant", tenantKey).register(meterRegistry);
+        Gauge.builder("archura.near.cache.weight", nearCache, NearCache::getWeight).tag("tenant", tenantKey).baseUnit("bytes").register(meterRegistry);
+        return nearCache;
+    }
+
+    private void publish(final String tenantKey, final Collection<String> hashKeys) {
+        final StringRedisTemplate template = redisTemplate;
+        if (isNull(template)) {
+            return;
+        }
+        try {
+            final String message = nodeId + SEPARATOR + String.join(SEPARATOR, hashKeys);
+            template.convertAndSend(CHANNEL_PREFIX + tenantKey, message);
+        } catch (RuntimeException e) {
+            publishFailures.increment();
+        }
+    }
+
+    private void onMessage(final Message message, final byte[] pattern) {
+        final String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        final NearCache nearCache = nearCaches.get(channel.substring(CHANNEL_PREFIX.length()));
+        if (isNull(nearCache)) {
+            return;
+        }
+        final List<String> lines = Arrays.asList(new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR));
+        if (lines.isEmpty() || nodeId.equals(lines.get(0))) {
+            return;
+        }
+        nearCache.evict(lines.subList(1, lines.size()));
+    }
+
+}
@@ -1,55 +1,126 @@
 package io.archura.platform.internal.cache;
 
 import io.archura.platform.api.cache.Cache;
+import io.archura.platform.external.BinaryCache;
+import io.archura.platform.internal.cache.codec.ValueCodec;
 import jdk.internal.reflect.Reflection;
 import org.springframework.data.redis.core.HashOperations;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-public class TenantCache implements Cache {
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+public class TenantCache implements Cache, BinaryCache {
 
     static {
-        Reflection.registerFieldsToFilter(TenantCache.class, Set.of("tenantKey", "hashOperations"));
+        Reflection.registerFieldsToFilter(TenantCache.class, Set.of("tenantKey", "hashOperations", "codec", "nearCache", "batcher"));
     }
 
     private final String tenantKey;
-    private final HashOperations<String, String, Map<String, Object>> hashOperations;
-
-    public TenantCache(String tenantKey, HashOperations<String, String, Map<String, Object>> hashOperations) {
+    private final HashOperations<String, String, byte[]> hashOperations;
+    private final ValueCodec codec;
+    private final NearCache nearCache;
+    private final CacheBatcher batcher;
+
+    public TenantCache(
+            String tenantKey,
+            HashOperations<String, String, byte[]> hashOperations,
+            ValueCodec codec,
+            NearCache nearCache,
+            CacheBatcher batcher
+    ) {
         this.tenantKey = tenantKey;
         this.hashOperations = hashOperations;
+        this.codec = codec;
+        this.nearCache = nearCache;
+        this.batcher = batcher;
     }
 
     @Override
     public Map<String, Object> get(String hashKey) {
-        return hashOperations.get(tenantKey, hashKey);
+        if (isNull(nearCache)) {
+            return decode(readBytes(hashKey));
+        }
+        final NearCache.CachedValue cachedValue = nearCache.get(hashKey);
+        if (nonNull(cachedValue)) {
+            return cachedValue.value();
+        }
+        final long version = nearCache.version(hashKey);
+        final Map<String, Object> value = decode(readBytes(hashKey));
+        nearCache.put(hashKey, value, version);
+        return value;
     }
 
     @Override
     public List<Map<String, Object>> multiGet(Collection<String> hashKeys) {
-        return hashOperations.multiGet(tenantKey, hashKeys);
+        if (isNull(nearCache)) {
+            return decode(readBytes(hashKeys));
+        }
+        final List<Map<String, Object>> values = new ArrayList<>(hashKeys.size());
+        final List<Integer> missingIndexes = new ArrayList<>();
+        final List<String> missingKeys = new ArrayList<>();
+        final List<Long> missingVersions = new ArrayList<>();
+        for (String hashKey : hashKeys) {
+            final NearCache.CachedValue cachedValue = nearCache.get(hashKey);
+            if (nonNull(cachedValue)) {
+                values.add(cachedValue.value());
+            } else {
+                missingIndexes.add(values.size());
+                missingKeys.add(hashKey);
+                missingVersions.add(nearCache.version(hashKey));
+                values.add(null);
+            }
+        }
+        if (!missingKeys.isEmpty()) {
+            final List<Map<String, Object>> missingValues = decode(readBytes(missingKeys));
+            for (int i = 0; i < missingKeys.size(); i++) {
+                final Map<String, Object> value = missingValues.get(i);
+                values.set(missingIndexes.get(i), value);
+                nearCache.put(missingKeys.get(i), value, missingVersions.get(i));
+            }
+        }
+        return values;
     }
 
     @Override
     public void put(String hashKey, Map<String, Object> value) {
-        hashOperations.put(tenantKey, hashKey, value);
+        writeBytes(Map.of(hashKey, codec.encode(value)));
+        invalidate(List.of(hashKey));
     }
 
     @Override
     public void putAll(Map<? extends String, ? extends Map<String, Object>> map) {
-        hashOperations.putAll(tenantKey, map);
+        final Map<String, byte[]> encoded = new HashMap<>(map.size() * 2);
+        map.forEach((hashKey, value) -> encoded.put(hashKey, codec.encode(value)));
+        writeBytes(encoded);
+        invalidate(new ArrayList<>(map.keySet()));
     }
 
     @Override
     public Boolean putIfAbsent(String hashKey, Map<String, Object> value) {
-        return hashOperations.putIfAbsent(tenantKey, hashKey, value);
+        final Boolean stored = hashOperations.putIfAbsent(tenantKey, hashKey, codec.encode(value));
+        if (Boolean.TRUE.equals(stored)) {
+            invalidate(List.of(hashKey));
+        }
+        return stored;
     }
 
     @Override
     public Boolean hasKey(String hashKey) {
+        if (nonNull(nearCache)) {
+            final NearCache.CachedValue cachedValue = nearCache.get(hashKey);
+            if (nonNull(cachedValue)) {
+                return nonNull(cachedValue.value());
+            }
+        }
         return hashOperations.hasKey(tenantKey, hashKey);
     }
 
@@ -60,12 +131,15 @@ public class TenantCache implements Cache {
 
     @Override
     public List<Map<String, Object>> values() {
-        return hashOperations.values(tenantKey);
+        return decode(hashOperations.values(tenantKey));
     }
 
     @Override
     public Map<String, Map<String, Object>> entries() {
-        return hashOperations.entries(tenantKey);
+        final Map<String, byte[]> entries = hashOperations.entries(tenantKey);
+        final Map<String, Map<String, Object>> decoded = new LinkedHashMap<>(entries.size() * 2);
+        entries.forEach((hashKey, value) -> decoded.put(hashKey, decode(value)));
+        return decoded;
     }
 
     @Override
@@ -76,5 +150,68 @@ public class TenantCache implements Cache {
     @Override
     public void delete(String... hashKeys) {
         hashOperations.delete(tenantKey, hashKeys);
+        invalidate(Arrays.asList(hashKeys));
+    }
+
+    @Override
+    public byte[] getBytes(String hashKey) {
+        return readBytes(hashKey);
+    }
+
+    @Override
+    public List<byte[]> multiGetBytes(Collection<String> hashKeys) {
+        return readBytes(hashKeys);
+    }
+
+    @Override
+    public void putBytes(String hashKey, byte[] value) {
+        writeBytes(Map.of(hashKey, value));
+        invalidate(List.of(hashKey));
+    }
+
+    private byte[] readBytes(String hashKey) {
+        if (isNull(batcher)) {
+            return hashOperations.get(tenantKey, hashKey);
+        }
+        return batcher.read(tenantKey, List.of(hashKey)).get(0);
+    }
+
+    private List<byte[]> readBytes(Collection<String> hashKeys) {
+        if (hashKeys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (isNull(batcher)) {
+            return hashOperations.multiGet(tenantKey, hashKeys);
+        }
+        return batcher.read(tenantKey, hashKeys);
+    }
+
+    private void writeBytes(Map<String, byte[]> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        if (isNull(batcher)) {
+            hashOperations.putAll(tenantKey, values);
+        } else {
+            batcher.write(tenantKey, values);
+        }
+    }
+
+    private Map<String, Object> decode(byte[] bytes) {
+        return isNull(bytes) ? null : codec.decode(bytes);
+    }
+
+    private List<Map<String, Object>> decode(List<byte[]> values) {
+        final List<Map<String, Object>> decoded = new ArrayList<>(values.size());
+        for (byte[] value : values) {
+            decoded.add(decode(value));
+        }
+        return decoded;
+    }
+
+    private void invalidate(Collection<String> hashKeys) {
+        if (nonNull(nearCache)) {
+            nearCache.invalidate(hashKeys);
+        }
     }
 }
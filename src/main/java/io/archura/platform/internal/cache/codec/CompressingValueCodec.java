@@ -0,0 +1,65 @@
+package io.archura.platform.internal.cache.codec;
+
+import io.archura.platform.api.exception.ResourceLoadException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip compresses the encoded values that are larger than the threshold, smaller values are stored as they are.
+ * Compressed values are recognized by the gzip header, so both forms can be read back.
+ */
+public class CompressingValueCodec implements ValueCodec {
+
+    private final ValueCodec delegate;
+    private final int threshold;
+
+    public CompressingValueCodec(final ValueCodec delegate, final int threshold) {
+        this.delegate = delegate;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName() + "+gzip";
+    }
+
+    @Override
+    public byte[] encode(final Map<String, Object> value) {
+        final byte[] bytes = delegate.encode(value);
+        if (bytes.length < threshold) {
+            return bytes;
+        }
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 2);
+        try (OutputStream outputStream = new GZIPOutputStream(compressed)) {
+            outputStream.write(bytes);
+        } catch (IOException e) {
+            throw new ResourceLoadException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    @Override
+    public Map<String, Object> decode(final byte[] bytes) {
+        return delegate.decode(isCompressed(bytes) ? decompress(bytes) : bytes);
+    }
+
+    static boolean isCompressed(final byte[] bytes) {
+        return bytes.length > 2 && (bytes[0] & 0xFF) == 0x1F && (bytes[1] & 0xFF) == 0x8B;
+    }
+
+    static byte[] decompress(final byte[] bytes) {
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new ResourceLoadException(e);
+        }
+    }
+
+}
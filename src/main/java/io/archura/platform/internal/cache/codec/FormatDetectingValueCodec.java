@@ -0,0 +1,42 @@
+package io.archura.platform.internal.cache.codec;
+
+import java.util.Map;
+
+/**
+ * Encodes with the configured codec of a tenant and decodes whatever format a value was stored in,
+ * so the codec of a tenant can be changed without migrating its cache.
+ */
+public class FormatDetectingValueCodec implements ValueCodec {
+
+    private final ValueCodec encoder;
+    private final ValueCodec json;
+    private final ValueCodec cbor;
+
+    public FormatDetectingValueCodec(final ValueCodec encoder, final ValueCodec json, final ValueCodec cbor) {
+        this.encoder = encoder;
+        this.json = json;
+        this.cbor = cbor;
+    }
+
+    @Override
+    public String getName() {
+        return encoder.getName();
+    }
+
+    @Override
+    public byte[] encode(final Map<String, Object> value) {
+        return encoder.encode(value);
+    }
+
+    @Override
+    public Map<String, Object> decode(final byte[] bytes) {
+        final byte[] decompressed = CompressingValueCodec.isCompressed(bytes) ? CompressingValueCodec.decompress(bytes) : bytes;
+        return isCborMap(decompressed) ? cbor.decode(decompressed) : json.decode(decompressed);
+    }
+
+    private boolean isCborMap(final byte[] bytes) {
+        // CBOR major type 5, maps with a definite or an indefinite length, never valid as the first byte of JSON text
+        return bytes.length > 0 && (bytes[0] & 0xE0) == 0xA0;
+    }
+
+}
@@ -0,0 +1,49 @@
+package io.archura.platform.internal.cache.codec;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.archura.platform.api.exception.ResourceLoadException;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Encodes cache values with a Jackson object mapper, JSON with a plain object mapper or CBOR with a CBOR mapper.
+ */
+public class JacksonValueCodec implements ValueCodec {
+
+    private static final TypeReference<Map<String, Object>> VALUE_TYPE = new TypeReference<>() {
+    };
+
+    private final String name;
+    private final ObjectMapper objectMapper;
+
+    public JacksonValueCodec(final String name, final ObjectMapper objectMapper) {
+        this.name = name;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public byte[] encode(final Map<String, Object> value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new ResourceLoadException(e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> decode(final byte[] bytes) {
+        try {
+            return objectMapper.readValue(bytes, VALUE_TYPE);
+        } catch (IOException e) {
+            throw new ResourceLoadException(e);
+        }
+    }
+
+}
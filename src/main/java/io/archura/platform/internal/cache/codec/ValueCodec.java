@@ -0,0 +1,33 @@
+package io.archura.platform.internal.cache.codec;
+
+import java.util.Map;
+
+/**
+ * Converts the values of a tenant cache to and from the bytes stored in the hash.
+ */
+public interface ValueCodec {
+
+    /**
+     * Returns the name of the codec, used in the cache codec configuration.
+     *
+     * @return codec name.
+     */
+    String getName();
+
+    /**
+     * Encodes a cache value.
+     *
+     * @param value cache value.
+     * @return encoded value.
+     */
+    byte[] encode(Map<String, Object> value);
+
+    /**
+     * Decodes a cache value.
+     *
+     * @param bytes encoded value.
+     * @return cache value.
+     */
+    Map<String, Object> decode(byte[] bytes);
+
+}
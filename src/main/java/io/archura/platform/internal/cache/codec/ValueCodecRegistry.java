@@ -0,0 +1,63 @@
+package io.archura.platform.internal.cache.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.archura.platform.api.exception.ConfigurationException;
+import io.archura.platform.internal.configuration.GlobalConfiguration;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Resolves the cache value codec of each tenant from the global configuration.
+ */
+public class ValueCodecRegistry {
+
+    public static final String JSON = "json";
+    public static final String CBOR = "cbor";
+
+    private final ValueCodec jsonCodec = new JacksonValueCodec(JSON, new ObjectMapper());
+    private final ValueCodec cborCodec = new JacksonValueCodec(CBOR, new CBORMapper());
+    private final Map<String, ValueCodec> codecs = new ConcurrentHashMap<>();
+    private volatile GlobalConfiguration.CacheCodecConfiguration defaultConfiguration = new GlobalConfiguration.CacheCodecConfiguration();
+    private volatile Map<String, GlobalConfiguration.CacheCodecConfiguration> tenantConfigurations = new HashMap<>();
+
+    /**
+     * Applies the cache codec configuration of the global configuration.
+     *
+     * @param globalConfig global configuration.
+     */
+    public void configure(final GlobalConfiguration.GlobalConfig globalConfig) {
+        this.defaultConfiguration = globalConfig.getCacheCodec();
+        this.tenantConfigurations = new HashMap<>(globalConfig.getTenantCacheCodecs());
+        codecs.clear();
+    }
+
+    /**
+     * Returns the codec of the tenant.
+     *
+     * @param tenantKey environment and tenant key of the tenant cache.
+     * @return value codec.
+     * @throws ConfigurationException if the configured codec is unknown.
+     */
+    public ValueCodec get(final String tenantKey) {
+        return codecs.computeIfAbsent(tenantKey, key -> create(tenantConfigurations.getOrDefault(key, defaultConfiguration)));
+    }
+
+    private ValueCodec create(final GlobalConfiguration.CacheCodecConfiguration configuration) {
+        final String name = isNull(configuration.getName()) ? JSON : configuration.getName();
+        final ValueCodec codec = switch (name) {
+            case JSON -> jsonCodec;
+            case CBOR -> cborCodec;
+            default -> throw new ConfigurationException(String.format("Unknown cache codec: '%s'", name));
+        };
+        final ValueCodec encoder = configuration.getCompressionThreshold() > 0
+                ? new CompressingValueCodec(codec, configuration.getCompressionThreshold())
+                : codec;
+        return new FormatDetectingValueCodec(encoder, jsonCodec, cborCodec);
+    }
+
+}
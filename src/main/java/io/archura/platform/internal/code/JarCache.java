@@ -0,0 +1,292 @@
+package io.archura.platform.internal.code;
+
+import io.archura.platform.api.exception.ResourceLoadException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Keeps the jars of the code repository on the local disk.
+ * <ul>
+ *     <li>Jars are stored by their SHA-256 digest under {@code objects/}, the digest is verified while downloading,
+ *     against the {@code X-Checksum-Sha256} header when the repository sends one, and again when a jar is first used after a restart.</li>
+ *     <li>The digest and ETag of every jar url are stored under {@code references/}, so a restarted node revalidates its jars
+ *     with {@code If-None-Match} instead of downloading them again.</li>
+ *     <li>A jar is revalidated once its revalidate interval has passed, a cached jar is served when the repository is not reachable.</li>
+ * </ul>
+ */
+public class JarCache implements MeterBinder {
+
+    private static final String OBJECTS_DIRECTORY = "objects";
+    private static final String REFERENCES_DIRECTORY = "references";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String DIGEST_HEADER = "X-Checksum-Sha256";
+    private static final String URL_PROPERTY = "url";
+    private static final String DIGEST_PROPERTY = "digest";
+    private static final String ETAG_PROPERTY = "etag";
+
+    private final Path objectsDirectory;
+    private final Path referencesDirectory;
+    private final HttpClient httpClient;
+    private final long revalidateNanos;
+    private final Map<String, CachedJar> jars = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<CachedJar>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder downloads = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder staleServed = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Creates a jar cache.
+     *
+     * @param directory           local directory of the cached jars.
+     * @param httpClient          http client of the code repository.
+     * @param revalidateSeconds   seconds a jar is used before it is revalidated with the code repository.
+     * @throws ResourceLoadException if the cache directories could not be created.
+     */
+    public JarCache(final Path directory, final HttpClient httpClient, final long revalidateSeconds) {
+        this.objectsDirectory = directory.resolve(OBJECTS_DIRECTORY);
+        this.referencesDirectory = directory.resolve(REFERENCES_DIRECTORY);
+        this.httpClient = httpClient;
+        this.revalidateNanos = TimeUnit.SECONDS.toNanos(Math.max(0, revalidateSeconds));
+        try {
+            Files.createDirectories(objectsDirectory);
+            Files.createDirectories(referencesDirectory);
+        } catch (IOException e) {
+            throw new ResourceLoadException(e);
+        }
+    }
+
+    /**
+     * Returns the local url of the jar, downloads or revalidates it if needed.
+     *
+     * @param resourceUrl jar url, used as the cache key.
+     * @param resourceKey jar url with the query parameters, used to download the jar.
+     * @return local file url of the jar.
+     * @throws ResourceLoadException if the jar is not cached and could not be downloaded.
+     */
+    public URL get(final String resourceUrl, final String resourceKey) {
+        return get(resourceUrl, resourceKey, false);
+    }
+
+    /**
+     * Returns the local url of the jar, downloads or revalidates it if needed.
+     *
+     * @param resourceUrl jar url, used as the cache key.
+     * @param resourceKey jar url with the query parameters, used to download the jar.
+     * @param revalidate  revalidate the jar even if its revalidate interval has not passed.
+     * @return local file url of the jar.
+     * @throws ResourceLoadException if the jar is not cached and could not be downloaded.
+     */
+    public URL get(final String resourceUrl, final String resourceKey, final boolean revalidate) {
+        final CachedJar cached = jars.get(resourceUrl);
+        final CachedJar jar;
+        if (nonNull(cached) && !revalidate && System.nanoTime() - cached.validatedAt() < revalidateNanos) {
+            hits.increment();
+            jar = cached;
+        } else {
+            jar = fetch(resourceUrl, resourceKey).join();
+        }
+        try {
+            return jar.path().toUri().toURL();
+        } catch (IOException e) {
+            throw new ResourceLoadException(e);
+        }
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry meterRegistry) {
+        Gauge.builder("archura.jar.cache.size", jars, Map::size).register(meterRegistry);
+        FunctionCounter.builder("archura.jar.cache.hits", hits, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("archura.jar.cache.downloads", downloads, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("archura.jar.cache.not.modified", notModified, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("archura.jar.cache.stale.served", staleServed, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("archura.jar.cache.failures", failures, LongAdder::sum).register(meterRegistry);
+    }
+
+    private CompletableFuture<CachedJar> fetch(final String resourceUrl, final String resourceKey) {
+        final CompletableFuture<CachedJar> created = new CompletableFuture<>();
+        final CompletableFuture<CachedJar> existing = inFlight.putIfAbsent(resourceUrl, created);
+        if (nonNull(existing)) {
+            return existing;
+        }
+        try {
+            final CachedJar jar = revalidate(resourceUrl, resourceKey);
+            jars.put(resourceUrl, jar);
+            created.complete(jar);
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+        } finally {
+            inFlight.remove(resourceUrl, created);
+        }
+        return created;
+    }
+
+    private CachedJar revalidate(final String resourceUrl, final String resourceKey) {
+        final CachedJar known = Optional.ofNullable(jars.get(resourceUrl)).orElseGet(() -> readReference(resourceUrl));
+        final HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
+                .GET()
+                .uri(URI.create(resourceKey));
+        if (nonNull(known) && nonNull(known.etag())) {
+            requestBuilder.header("If-None-Match", known.etag());
+        }
+        try {
+            final HttpResponse<InputStream> response = httpClient.send(requestBuilder.build(), HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                if (response.statusCode() == 304 && nonNull(known)) {
+                    notModified.increment();
+                    return new CachedJar(known.digest(), known.etag(), known.path(), System.nanoTime());
+                }
+                if (response.statusCode() >= 200 && response.statusCode() <= 299) {
+                    final String etag = response.headers().firstValue("ETag").orElse(null);
+                    final String expectedDigest = response.headers().firstValue(DIGEST_HEADER).orElse(null);
+                    final CachedJar downloaded = download(resourceUrl, body, etag, expectedDigest);
+                    downloads.increment();
+                    return downloaded;
+                }
+                throw new IOException(String.format("Jar could not be downloaded, url: %s, status: %s", resourceUrl, response.statusCode()));
+            }
+        } catch (IOException e) {
+            return fallback(known, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback(known, e);
+        }
+    }
+
+    private CachedJar fallback(final CachedJar known, final Exception e) {
+        if (nonNull(known)) {
+            staleServed.increment();
+            return new CachedJar(known.digest(), known.etag(), known.path(), System.nanoTime());
+        }
+        failures.increment();
+        throw new ResourceLoadException(e);
+    }
+
+    private CachedJar download(final String resourceUrl, final InputStream body, final String etag, final String expectedDigest) throws IOException {
+        final Path temporaryFile = Files.createTempFile(objectsDirectory, "download-", ".tmp");
+        try {
+            final MessageDigest messageDigest = newMessageDigest();
+            try (DigestInputStream digestInputStream = new DigestInputStream(body, messageDigest);
+                 OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+                digestInputStream.transferTo(outputStream);
+            }
+            final String digest = HexFormat.of().formatHex(messageDigest.digest());
+            if (nonNull(expectedDigest) && !expectedDigest.equalsIgnoreCase(digest)) {
+                throw new IOException(String.format("Jar digest mismatch, url: %s, expected: %s, actual: %s", resourceUrl, expectedDigest, digest));
+            }
+            final Path path = objectsDirectory.resolve(digest + ".jar");
+            if (Files.exists(path)) {
+                Files.delete(temporaryFile);
+            } else {
+                Files.move(temporaryFile, path, StandardCopyOption.ATOMIC_MOVE);
+            }
+            writeReference(resourceUrl, digest, etag);
+            return new CachedJar(digest, etag, path, System.nanoTime());
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private CachedJar readReference(final String resourceUrl) {
+        final Path referenceFile = getReferenceFile(resourceUrl);
+        if (!Files.exists(referenceFile)) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(referenceFile, StandardCharsets.UTF_8)) {
+            final Properties properties = new Properties();
+            properties.load(reader);
+            final String digest = properties.getProperty(DIGEST_PROPERTY);
+            if (isNull(digest) || !resourceUrl.equals(properties.getProperty(URL_PROPERTY))) {
+                return null;
+            }
+            final Path path = objectsDirectory.resolve(digest + ".jar");
+            if (!Files.exists(path) || !digest.equals(digestOf(path))) {
+                Files.deleteIfExists(path);
+                return null;
+            }
+            // validatedAt is unknown after a restart, the first use revalidates the jar.
+            return new CachedJar(digest, properties.getProperty(ETAG_PROPERTY), path, System.nanoTime() - revalidateNanos - 1);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void writeReference(final String resourceUrl, final String digest, final String etag) throws IOException {
+        final Properties properties = new Properties();
+        properties.setProperty(URL_PROPERTY, resourceUrl);
+        properties.setProperty(DIGEST_PROPERTY, digest);
+        if (nonNull(etag)) {
+            properties.setProperty(ETAG_PROPERTY, etag);
+        }
+        final Path temporaryFile = Files.createTempFile(referencesDirectory, "reference-", ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            Files.move(temporaryFile, getReferenceFile(resourceUrl), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private Path getReferenceFile(final String resourceUrl) {
+        final byte[] urlDigest = newMessageDigest().digest(resourceUrl.getBytes(StandardCharsets.UTF_8));
+        return referencesDirectory.resolve(HexFormat.of().formatHex(urlDigest) + ".properties");
+    }
+
+    private String digestOf(final Path path) throws IOException {
+        final MessageDigest messageDigest = newMessageDigest();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            messageDigest.update(buffer);
+        }
+        return HexFormat.of().formatHex(messageDigest.digest());
+    }
+
+    private MessageDigest newMessageDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new ResourceLoadException(e);
+        }
+    }
+
+    private record CachedJar(String digest, String etag, Path path, long validatedAt) {
+    }
+
+}
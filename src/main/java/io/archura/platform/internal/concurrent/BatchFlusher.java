@@ -0,0 +1,128 @@
+package io.archura.platform.internal.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Queues elements from many threads and hands them to a flush action in batches on a single thread,
+ * a daemon platform thread by default or a thread of the given factory, e.g. a virtual thread.
+ * A batch is flushed once the linger time has passed since the first element arrived or the batch is full,
+ * elements offered while a flush is running are collected into the next batch.
+ *
+ * @param <E> element type.
+ */
+public class BatchFlusher<E> implements AutoCloseable {
+
+    private final MpscRingBuffer<E> queue;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final Consumer<List<E>> flushAction;
+    private final Thread flusher;
+    private volatile boolean idle;
+    private volatile boolean running = true;
+
+    /**
+     * Creates a batch flusher and starts its daemon platform thread.
+     *
+     * @param threadName   name of the flusher thread.
+     * @param queueSize    maximum number of queued elements.
+     * @param maxBatchSize maximum number of elements of a batch.
+     * @param lingerNanos  nanoseconds to wait for more elements before a batch is flushed.
+     * @param flushAction  flushes a batch, must not throw.
+     */
+    public BatchFlusher(
+            final String threadName,
+            final int queueSize,
+            final int maxBatchSize,
+            final long lingerNanos,
+            final Consumer<List<E>> flushAction
+    ) {
+        this(runnable -> {
+            final Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        }, queueSize, maxBatchSize, lingerNanos, flushAction);
+    }
+
+    /**
+     * Creates a batch flusher and starts its thread with the thread factory.
+     *
+     * @param threadFactory creates the flusher thread.
+     * @param queueSize     maximum number of queued elements.
+     * @param maxBatchSize  maximum number of elements of a batch.
+     * @param lingerNanos   nanoseconds to wait for more elements before a batch is flushed.
+     * @param flushAction   flushes a batch, must not throw.
+     */
+    public BatchFlusher(
+            final ThreadFactory threadFactory,
+            final int queueSize,
+            final int maxBatchSize,
+            final long lingerNanos,
+            final Consumer<List<E>> flushAction
+    ) {
+        this.queue = new MpscRingBuffer<>(queueSize);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.lingerNanos = Math.max(0, lingerNanos);
+        this.flushAction = flushAction;
+        this.flusher = threadFactory.newThread(this::flushLoop);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues an element for the next batch.
+     *
+     * @param element element.
+     * @return false if the queue is full or the flusher is closed.
+     */
+    public boolean offer(final E element) {
+        if (!running || !queue.offer(element)) {
+            return false;
+        }
+        if (idle || queue.size() >= maxBatchSize) {
+            LockSupport.unpark(flusher);
+        }
+        return true;
+    }
+
+    /**
+     * Flushes the queued elements and stops the flusher thread.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flushLoop() {
+        final List<E> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            if (queue.isEmpty()) {
+                idle = true;
+                if (queue.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                idle = false;
+                continue;
+            }
+            final long deadline = System.nanoTime() + lingerNanos;
+            long remaining = lingerNanos;
+            while (running && remaining > 0 && queue.size() < maxBatchSize) {
+                LockSupport.parkNanos(this, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+            queue.drain(batch::add, maxBatchSize);
+            flushAction.accept(batch);
+            batch.clear();
+        }
+    }
+
+}
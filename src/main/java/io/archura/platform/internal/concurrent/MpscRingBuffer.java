@@ -0,0 +1,112 @@
+package io.archura.platform.internal.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A bounded, lock-free, multi producer single consumer ring buffer.
+ * Every slot carries a sequence number, producers claim a slot with a CAS on the tail
+ * and publish it by advancing the slot sequence, the single consumer reads published slots in order.
+ *
+ * @param <E> element type.
+ */
+public class MpscRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    public MpscRingBuffer(final int requestedCapacity) {
+        this.capacity = capacityFor(requestedCapacity);
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds the element if there is free space, can be called by any thread.
+     *
+     * @param element element to add.
+     * @return false if the buffer is full.
+     */
+    public boolean offer(final E element) {
+        while (true) {
+            final long position = tail.get();
+            final int index = (int) (position & mask);
+            final long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.set(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest published element, must only be called by the single consumer thread.
+     *
+     * @return oldest element or null if the buffer is empty.
+     */
+    public E poll() {
+        final long position = head.get();
+        final int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        final E element = elements.get(index);
+        elements.set(index, null);
+        sequences.lazySet(index, position + capacity);
+        head.lazySet(position + 1);
+        return element;
+    }
+
+    /**
+     * Removes up to limit elements and passes them to the consumer, must only be called by the single consumer thread.
+     *
+     * @param consumer element consumer.
+     * @param limit    maximum number of elements to drain.
+     * @return number of drained elements.
+     */
+    public int drain(final Consumer<E> consumer, final int limit) {
+        int count = 0;
+        E element;
+        while (count < limit && (element = poll()) != null) {
+            consumer.accept(element);
+            count++;
+        }
+        return count;
+    }
+
+    public int size() {
+        final long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private static int capacityFor(final int requestedCapacity) {
+        final int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity) - 1) << 1;
+        return capacity < 0 ? 1 << 30 : capacity;
+    }
+
+}
@@ -0,0 +1,224 @@
+package io.archura.platform.internal.concurrent;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hierarchical timer wheel driven by a single daemon thread.
+ * <ul>
+ *     <li>Every level has 64 buckets, a bucket of the first level spans one tick and a bucket of each higher level
+ *     spans all buckets of the level below it, four levels cover 2^24 ticks. Timeouts further away are parked
+ *     in the highest level and placed again when their bucket comes around.</li>
+ *     <li>Scheduling and cancelling are lock-free, new timeouts are queued and placed into the wheel by the wheel thread
+ *     on its next tick. Cancelled timeouts are dropped when their bucket is reached.</li>
+ *     <li>Expired tasks run on the wheel thread, they must be short and hand longer work to an executor.</li>
+ * </ul>
+ */
+public class TimerWheel implements AutoCloseable {
+
+    private static final int BITS = 6;
+    private static final int BUCKETS = 1 << BITS;
+    private static final int MASK = BUCKETS - 1;
+    private static final int LEVELS = 4;
+
+    private final int levels;
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final Queue<Entry> added = new ConcurrentLinkedQueue<>();
+    private final ArrayDeque<Entry>[][] wheels;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread ticker;
+    private volatile boolean running = true;
+    private long currentTick;
+
+    /**
+     * Creates a timer wheel and starts its thread.
+     *
+     * @param threadName name of the wheel thread.
+     * @param tick       duration of a tick, timeouts fire at most one tick late on an idle wheel.
+     * @param unit       unit of the tick.
+     */
+    public TimerWheel(final String threadName, final long tick, final TimeUnit unit) {
+        this(threadName, tick, unit, LEVELS);
+    }
+
+    /**
+     * Creates a timer wheel with the given number of levels, fewer levels park timeouts in the highest level sooner.
+     *
+     * @param threadName name of the wheel thread.
+     * @param tick       duration of a tick.
+     * @param unit       unit of the tick.
+     * @param levels     number of levels.
+     */
+    @SuppressWarnings("unchecked")
+    TimerWheel(final String threadName, final long tick, final TimeUnit unit, final int levels) {
+        this.levels = Math.max(1, levels);
+        this.tickNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), unit.toNanos(tick));
+        this.wheels = new ArrayDeque[this.levels][BUCKETS];
+        for (int level = 0; level < this.levels; level++) {
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                wheels[level][bucket] = new ArrayDeque<>();
+            }
+        }
+        this.startNanos = System.nanoTime();
+        this.ticker = new Thread(this::tickLoop, threadName);
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    /**
+     * Schedules a task to run once the delay has passed.
+     *
+     * @param task  task to run on the wheel thread.
+     * @param delay delay of the task.
+     * @param unit  unit of the delay.
+     * @return timeout of the task.
+     */
+    public Timeout schedule(final Runnable task, final long delay, final TimeUnit unit) {
+        final Entry entry = new Entry(task, System.nanoTime() + Math.max(0, unit.toNanos(delay)));
+        pending.incrementAndGet();
+        added.offer(entry);
+        return entry;
+    }
+
+    /**
+     * Returns the number of scheduled timeouts that have not expired or been cancelled.
+     *
+     * @return number of pending timeouts.
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    /**
+     * Stops the wheel thread, pending timeouts never fire.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(ticker);
+    }
+
+    private void tickLoop() {
+        while (running) {
+            final long nextTickNanos = startNanos + (currentTick + 1) * tickNanos;
+            long remaining = nextTickNanos - System.nanoTime();
+            while (running && remaining > 0) {
+                LockSupport.parkNanos(this, remaining);
+                remaining = nextTickNanos - System.nanoTime();
+            }
+            if (!running) {
+                return;
+            }
+            currentTick++;
+            cascade();
+            Entry entry;
+            while ((entry = added.poll()) != null) {
+                place(entry);
+            }
+            expire(wheels[0][(int) (currentTick & MASK)]);
+        }
+    }
+
+    private void cascade() {
+        for (int level = 1; level < levels; level++) {
+            if ((currentTick & ((1L << (BITS * level)) - 1)) != 0) {
+                return;
+            }
+            final ArrayDeque<Entry> bucket = wheels[level][(int) ((currentTick >>> (BITS * level)) & MASK)];
+            final int size = bucket.size();
+            for (int i = 0; i < size; i++) {
+                place(bucket.poll());
+            }
+        }
+    }
+
+    private void place(final Entry entry) {
+        if (entry.cancelled.get()) {
+            return;
+        }
+        final long deadlineTick = Math.max(currentTick, Math.ceilDiv(entry.deadlineNanos - startNanos, tickNanos));
+        final long delta = deadlineTick - currentTick;
+        for (int level = 0; level < levels; level++) {
+            if (delta < (1L << (BITS * (level + 1))) || level == levels - 1) {
+                wheels[level][(int) ((deadlineTick >>> (BITS * level)) & MASK)].add(entry);
+                return;
+            }
+        }
+    }
+
+    private void expire(final ArrayDeque<Entry> bucket) {
+        final int size = bucket.size();
+        for (int i = 0; i < size; i++) {
+            final Entry entry = bucket.poll();
+            if (entry.cancelled.get()) {
+                continue;
+            }
+            if (entry.deadlineNanos - startNanos > currentTick * tickNanos) {
+                // parked in the highest level, its bucket came around before its deadline
+                place(entry);
+                continue;
+            }
+            if (entry.cancelled.compareAndSet(false, true)) {
+                pending.decrementAndGet();
+                entry.expired = true;
+                try {
+                    entry.task.run();
+                } catch (RuntimeException e) {
+                    // a failing task must not stop the wheel
+                }
+            }
+        }
+    }
+
+    /**
+     * Handle of a scheduled task.
+     */
+    public interface Timeout {
+
+        /**
+         * Cancels the task if it has not run yet.
+         *
+         * @return true if the task was cancelled by this call.
+         */
+        boolean cancel();
+
+        boolean isExpired();
+
+    }
+
+    private final class Entry implements Timeout {
+
+        private final Runnable task;
+        private final long deadlineNanos;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private volatile boolean expired;
+
+        private Entry(final Runnable task, final long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (cancelled.compareAndSet(false, true)) {
+                pending.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return expired;
+        }
+
+    }
+
+}
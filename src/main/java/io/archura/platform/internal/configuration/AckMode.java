@@ -0,0 +1,31 @@
+package io.archura.platform.internal.configuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.stream.Stream;
+
+public enum AckMode {
+    AUTO("auto"),
+    BATCHED("batched"),
+    MANUAL("manual");
+
+    private final String key;
+
+    AckMode(final String key) {
+        this.key = key;
+    }
+
+    @JsonValue
+    public String getKey() {
+        return key;
+    }
+
+    @JsonCreator
+    public static AckMode from(final String value) {
+        return Stream.of(values())
+                .filter(ackMode -> ackMode.key.equalsIgnoreCase(value))
+                .findFirst()
+                .orElse(AUTO);
+    }
+}
@@ -4,9 +4,27 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.archura.platform.external.FilterFunctionExecutor;
 import io.archura.platform.internal.Assets;
 import io.archura.platform.internal.Initializer;
+import io.archura.platform.internal.Prefetcher;
 import io.archura.platform.internal.RequestHandler;
 import io.archura.platform.internal.RequestInterceptor;
+import io.archura.platform.internal.admission.AdmissionController;
+import io.archura.platform.internal.cache.CacheBatcher;
+import io.archura.platform.internal.cache.NearCacheRegistry;
+import io.archura.platform.internal.cache.codec.ValueCodecRegistry;
+import io.archura.platform.internal.code.JarCache;
+import io.archura.platform.internal.deadline.RequestDeadlines;
+import io.archura.platform.internal.http.TenantHttpClientFactory;
+import io.archura.platform.internal.logging.LoggerFactory;
+import io.archura.platform.internal.pipeline.HotSwapWatcher;
+import io.archura.platform.internal.pipeline.PipelineRegistry;
+import io.archura.platform.internal.schedule.CronScheduler;
+import io.archura.platform.internal.schedule.ScheduleCoordinator;
+import io.archura.platform.internal.stream.LocalStreamRegistry;
 import io.archura.platform.internal.stream.RedisStreamSubscription;
+import io.archura.platform.internal.stream.StreamProducer;
+import io.archura.platform.internal.stream.TopicPartitioner;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
@@ -24,6 +42,7 @@ import org.springframework.web.servlet.function.RouterFunctions;
 import org.springframework.web.servlet.function.ServerResponse;
 
 import java.net.http.HttpClient;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.concurrent.ExecutorService;
@@ -36,14 +55,35 @@ public class ApplicationConfiguration implements WebMvcConfigurer {
 
     @Value("${config.repository.url:http://config-service/}")
     private String configRepositoryUrl;
+    @Value("${config.repository.cache.ttl:300}")
+    private long configurationCacheTtl;
+    @Value("${config.repository.cache.negative-ttl:30}")
+    private long configurationCacheNegativeTtl;
+    @Value("${code.repository.cache.directory:/tmp/archura/jars}")
+    private String jarCacheDirectory;
+    @Value("${code.repository.cache.revalidate:60}")
+    private long jarCacheRevalidate;
+    @Value("${code.repository.watch.interval:30}")
+    private long codeWatchInterval;
+    @Value("${config.repository.prefetch.enabled:false}")
+    private boolean prefetchEnabled;
+    @Value("${config.repository.prefetch.concurrency:32}")
+    private int prefetchConcurrency;
+    @Value("${server.request.deadline.tick:10}")
+    private long requestDeadlineTick;
     private final HttpClient defaultHttpClient = buildDefaultHttpClient();
     private final HttpClient configurationHttpClient = buildConfigurationHttpClient();
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final ThreadFactory threadFactory = getThreadFactory();
 
+    @Bean
+    public RequestDeadlines requestDeadlines() {
+        return new RequestDeadlines(requestDeadlineTick);
+    }
+
     @Bean
     public RequestInterceptor requestInterceptor() {
-        return new RequestInterceptor();
+        return new RequestInterceptor(requestDeadlines());
     }
 
     @Override
@@ -84,11 +124,118 @@ public class ApplicationConfiguration implements WebMvcConfigurer {
     }
 
 
+    @Bean
+    public JarCache jarCache() {
+        return new JarCache(Path.of(jarCacheDirectory), defaultHttpClient, jarCacheRevalidate);
+    }
+
+    @Bean
+    public NearCacheRegistry nearCacheRegistry(final MeterRegistry meterRegistry) {
+        return new NearCacheRegistry(meterRegistry);
+    }
+
+    @Bean
+    public ValueCodecRegistry valueCodecRegistry() {
+        return new ValueCodecRegistry();
+    }
+
+    @Bean
+    public CacheBatcher cacheBatcher(final MeterRegistry meterRegistry) {
+        return new CacheBatcher(meterRegistry);
+    }
+
+    @Bean
+    public StreamProducer streamProducer(final MeterRegistry meterRegistry) {
+        return new StreamProducer(meterRegistry);
+    }
+
+    @Bean
+    public TopicPartitioner topicPartitioner() {
+        return new TopicPartitioner();
+    }
+
+    @Bean
+    public LocalStreamRegistry localStreamRegistry(final MeterRegistry meterRegistry) {
+        return new LocalStreamRegistry(meterRegistry);
+    }
+
+    @Bean
+    public TenantHttpClientFactory tenantHttpClientFactory(
+            @Qualifier("VirtualExecutorService") final ExecutorService executorService,
+            final MeterRegistry meterRegistry
+    ) {
+        return new TenantHttpClientFactory(defaultHttpClient, executorService, meterRegistry);
+    }
+
     @Bean
     public Assets assets(
-            final FilterFunctionExecutor filterFunctionExecutor
+            final TenantHttpClientFactory tenantHttpClientFactory,
+            final FilterFunctionExecutor filterFunctionExecutor,
+            final JarCache jarCache,
+            final NearCacheRegistry nearCacheRegistry,
+            final ValueCodecRegistry valueCodecRegistry,
+            final CacheBatcher cacheBatcher,
+            final StreamProducer streamProducer,
+            final TopicPartitioner topicPartitioner,
+            final LocalStreamRegistry localStreamRegistry
+    ) {
+        return new Assets(objectMapper, tenantHttpClientFactory, filterFunctionExecutor, jarCache, nearCacheRegistry, valueCodecRegistry, cacheBatcher, streamProducer, topicPartitioner, localStreamRegistry);
+    }
+
+    @Bean
+    public MeterBinder logWriterMetrics() {
+        return meterRegistry -> {
+            if (LoggerFactory.getLogWriter() instanceof MeterBinder meterBinder) {
+                meterBinder.bindTo(meterRegistry);
+            }
+        };
+    }
+
+    @Bean
+    public HotSwapWatcher hotSwapWatcher() {
+        return new HotSwapWatcher(codeWatchInterval);
+    }
+
+    @Bean
+    public PipelineRegistry pipelineRegistry(final Assets assets, final MeterRegistry meterRegistry, final HotSwapWatcher hotSwapWatcher) {
+        return new PipelineRegistry(assets, meterRegistry, hotSwapWatcher);
+    }
+
+    @Bean
+    public ConfigurationLoader configurationLoader(
+            final Assets assets,
+            @Qualifier("VirtualExecutorService") final ExecutorService executorService
     ) {
-        return new Assets(objectMapper, defaultHttpClient, filterFunctionExecutor);
+        return new ConfigurationLoader(assets, defaultHttpClient, executorService, configurationCacheTtl, configurationCacheNegativeTtl);
+    }
+
+    @Bean
+    public Prefetcher prefetcher(
+            final ConfigurationLoader configurationLoader,
+            final PipelineRegistry pipelineRegistry,
+            @Qualifier("VirtualExecutorService") final ExecutorService executorService,
+            final Assets assets
+    ) {
+        return new Prefetcher(prefetchEnabled, prefetchConcurrency, configRepositoryUrl, configurationLoader, pipelineRegistry, executorService, assets);
+    }
+
+    @Bean
+    public ScheduleCoordinator scheduleCoordinator(final MeterRegistry meterRegistry) {
+        return new ScheduleCoordinator(meterRegistry);
+    }
+
+    @Bean
+    public CronScheduler cronScheduler(
+            final MeterRegistry meterRegistry,
+            @Qualifier("VirtualExecutorService") final ExecutorService executorService,
+            final ScheduleCoordinator scheduleCoordinator
+    ) {
+        return new CronScheduler(meterRegistry, executorService, scheduleCoordinator);
+    }
+
+    @Bean
+    public AdmissionController admissionController(final MeterRegistry meterRegistry) {
+        return new AdmissionController(meterRegistry);
     }
 
     @Bean
@@ -97,9 +244,19 @@ public class ApplicationConfiguration implements WebMvcConfigurer {
             final RedisStreamSubscription redisStreamSubscription,
             final FilterFunctionExecutor filterFunctionExecutor,
             @Qualifier("VirtualExecutorService") final ExecutorService executorService,
-            final Assets assets
+            final Assets assets,
+            final Prefetcher prefetcher,
+            final NearCacheRegistry nearCacheRegistry,
+            final ValueCodecRegistry valueCodecRegistry,
+            final CacheBatcher cacheBatcher,
+            final StreamProducer streamProducer,
+            final TopicPartitioner topicPartitioner,
+            final LocalStreamRegistry localStreamRegistry,
+            final CronScheduler cronScheduler,
+            final ScheduleCoordinator scheduleCoordinator,
+            final AdmissionController admissionController
     ) {
-        return new Initializer(configRepositoryUrl, configurationHttpClient, beanFactory, threadFactory, executorService, assets, redisStreamSubscription, filterFunctionExecutor);
+        return new Initializer(configRepositoryUrl, configurationHttpClient, beanFactory, executorService, assets, redisStreamSubscription, filterFunctionExecutor, prefetcher, nearCacheRegistry, valueCodecRegistry, cacheBatcher, streamProducer, topicPartitioner, localStreamRegistry, cronScheduler, scheduleCoordinator, admissionController);
     }
 
     @Bean
@@ -107,9 +264,12 @@ public class ApplicationConfiguration implements WebMvcConfigurer {
             final Assets assets,
             final ConfigurableBeanFactory beanFactory,
             final FilterFunctionExecutor filterFunctionExecutor,
-            @Qualifier("VirtualExecutorService") final ExecutorService executorService
+            final PipelineRegistry pipelineRegistry,
+            final ConfigurationLoader configurationLoader,
+            @Qualifier("VirtualExecutorService") final ExecutorService executorService,
+            final AdmissionController admissionController
     ) {
-        return new RequestHandler(configRepositoryUrl, defaultHttpClient, assets, beanFactory, filterFunctionExecutor);
+        return new RequestHandler(configRepositoryUrl, assets, beanFactory, filterFunctionExecutor, pipelineRegistry, configurationLoader, admissionController);
     }
 
     @Bean
@@ -1,7 +1,5 @@
 package io.archura.platform.internal.configuration;
 
-import com.fasterxml.jackson.databind.type.MapType;
-import com.fasterxml.jackson.databind.type.TypeFactory;
 import io.lettuce.core.RedisURI;
 import org.springframework.data.redis.connection.RedisPassword;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
@@ -10,18 +8,16 @@ import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StreamOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
-import java.util.Map;
-
 import static java.util.Objects.nonNull;
 
 public class CacheConfiguration {
 
     private final String redisUrl;
     private LettuceConnectionFactory redisConnectionFactory;
-    private HashOperations<String, String, Map<String, Object>> hashOperations;
+    private HashOperations<String, String, byte[]> hashOperations;
     private StreamOperations<String, Object, Object> streamOperations;
 
     public CacheConfiguration(final String redisUrl) {
@@ -32,7 +28,7 @@ public class CacheConfiguration {
         return redisConnectionFactory;
     }
 
-    public HashOperations<String, String, Map<String, Object>> getHashOperations() {
+    public HashOperations<String, String, byte[]> getHashOperations() {
         return hashOperations;
     }
 
@@ -62,13 +58,12 @@ public class CacheConfiguration {
         this.streamOperations = stringRedisTemplate.opsForStream();
     }
 
-    private RedisTemplate<String, Map<String, Object>> getRedisTemplate() {
-        final MapType mapType = TypeFactory.defaultInstance().constructMapType(Map.class, String.class, Object.class);
-        final RedisTemplate<String, Map<String, Object>> redisTemplate = new RedisTemplate<>();
+    private RedisTemplate<String, byte[]> getRedisTemplate() {
+        final RedisTemplate<String, byte[]> redisTemplate = new RedisTemplate<>();
         redisTemplate.setConnectionFactory(redisConnectionFactory);
-        redisTemplate.setHashValueSerializer(new Jackson2JsonRedisSerializer<>(Map.class));
+        redisTemplate.setHashValueSerializer(RedisSerializer.byteArray());
         redisTemplate.setKeySerializer(new StringRedisSerializer());
-        redisTemplate.setValueSerializer(new Jackson2JsonRedisSerializer<>(mapType));
+        redisTemplate.setValueSerializer(RedisSerializer.byteArray());
         redisTemplate.setHashKeySerializer(new StringRedisSerializer());
 
         redisTemplate.afterPropertiesSet();
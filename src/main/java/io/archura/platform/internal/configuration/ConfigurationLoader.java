@@ -0,0 +1,207 @@
+package io.archura.platform.internal.configuration;
+
+import io.archura.platform.api.exception.ConfigurationException;
+import io.archura.platform.internal.Assets;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.net.http.HttpClient;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Loads configuration files from the configuration repository and caches them by url.
+ * <ul>
+ *     <li>Concurrent loads of the same url share a single in-flight request.</li>
+ *     <li>Failed loads are cached for the negative TTL, so unknown environments and tenants do not reach the repository on every request.
+ *     Expired failures are swept at most once per negative TTL, and no more failures are cached while the cache is full.</li>
+ *     <li>Loaded configurations older than the TTL are served while they are refreshed in the background,
+ *     a failed refresh keeps serving the previous configuration.</li>
+ *     <li>A refresh with the same content as the previous load keeps serving the previous configuration instance,
+ *     so callers detect a changed configuration by identity.</li>
+ * </ul>
+ */
+public class ConfigurationLoader implements MeterBinder {
+
+    public static final String ENVIRONMENT_CONFIGURATION_URL = "%s/imperative-shell/environments/%s/config.json";
+    public static final String TENANT_CONFIGURATION_URL = "%s/imperative-shell/environments/%s/tenants/%s/config.json";
+    private static final int MAX_ENTRIES = 10_000;
+    private static final long MIN_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Assets assets;
+    private final HttpClient configurationHttpClient;
+    private final ExecutorService executorService;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final Map<String, CachedConfiguration> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<CachedConfiguration>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    /**
+     * Creates a configuration loader.
+     *
+     * @param assets                  assets used to read the configuration files.
+     * @param configurationHttpClient http client of the configuration repository.
+     * @param executorService         executor of the background refreshes.
+     * @param ttlSeconds              seconds a loaded configuration is fresh, zero or less never refreshes.
+     * @param negativeTtlSeconds      seconds a failed load is cached.
+     */
+    public ConfigurationLoader(
+            final Assets assets,
+            final HttpClient configurationHttpClient,
+            final ExecutorService executorService,
+            final long ttlSeconds,
+            final long negativeTtlSeconds
+    ) {
+        this.assets = assets;
+        this.configurationHttpClient = configurationHttpClient;
+        this.executorService = executorService;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.negativeTtlNanos = TimeUnit.SECONDS.toNanos(Math.max(0, negativeTtlSeconds));
+    }
+
+    /**
+     * Returns the configuration of the url, loads it if it is not cached or the cached failure has expired.
+     *
+     * @param url   configuration file url.
+     * @param type  configuration class.
+     * @param <T>   configuration type.
+     * @return configuration object, the same instance until the content of the configuration changes.
+     * @throws ConfigurationException if the configuration could not be loaded.
+     */
+    public <T> T load(final String url, final Class<T> type) {
+        final CachedConfiguration cached = entries.get(url);
+        final long now = System.nanoTime();
+        sweepExpiredFailures(now);
+        if (nonNull(cached)) {
+            if (cached.isFresh(now)) {
+                if (cached.isFailed()) {
+                    negativeHits.increment();
+                    throw new ConfigurationException(cached.errorMessage());
+                }
+                hits.increment();
+                return type.cast(cached.value());
+            }
+            if (cached.isFailed()) {
+                entries.remove(url, cached);
+            } else {
+                staleHits.increment();
+                if (!inFlight.containsKey(url)) {
+                    executorService.submit(() -> fetch(url, type));
+                }
+                return type.cast(cached.value());
+            }
+        }
+        misses.increment();
+        final CachedConfiguration loaded = fetch(url, type).join();
+        if (loaded.isFailed()) {
+            throw new ConfigurationException(loaded.errorMessage());
+        }
+        return type.cast(loaded.value());
+    }
+
+    /**
+     * Returns true if the url is loaded through this loader.
+     *
+     * @param url configuration file url.
+     * @return true if there is a cached configuration or failure for the url.
+     */
+    public boolean isLoaded(final String url) {
+        return entries.containsKey(url);
+    }
+
+    /**
+     * Drops all cached configurations and failures.
+     */
+    public void invalidate() {
+        entries.clear();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry meterRegistry) {
+        Gauge.builder("archura.configuration.cache.size", entries, Map::size).register(meterRegistry);
+        FunctionCounter.builder("archura.configuration.cache.hits", hits, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("archura.configuration.cache.misses", misses, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("archura.configuration.cache.negative.hits", negativeHits, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("archura.configuration.cache.stale.hits", staleHits, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("archura.configuration.load.failures", failures, LongAdder::sum).register(meterRegistry);
+    }
+
+    private <T> CompletableFuture<CachedConfiguration> fetch(final String url, final Class<T> type) {
+        final CompletableFuture<CachedConfiguration> created = new CompletableFuture<>();
+        final CompletableFuture<CachedConfiguration> existing = inFlight.putIfAbsent(url, created);
+        if (nonNull(existing)) {
+            return existing;
+        }
+        try {
+            final CachedConfiguration loaded = read(url, type);
+            if (!loaded.isFailed() || entries.size() < MAX_ENTRIES) {
+                entries.put(url, loaded);
+            }
+            created.complete(loaded);
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+        } finally {
+            inFlight.remove(url, created);
+        }
+        return created;
+    }
+
+    private <T> CachedConfiguration read(final String url, final Class<T> type) {
+        final CachedConfiguration previous = entries.get(url);
+        try {
+            final byte[] content = assets.getConfigurationContent(configurationHttpClient, url);
+            if (nonNull(previous) && !previous.isFailed() && Arrays.equals(previous.content(), content)) {
+                return new CachedConfiguration(previous.value(), previous.content(), null, false, expiresAt(ttlNanos), ttlNanos <= 0);
+            }
+            final T value = assets.readConfiguration(content, url, type);
+            return new CachedConfiguration(value, content, null, false, expiresAt(ttlNanos), ttlNanos <= 0);
+        } catch (ConfigurationException e) {
+            failures.increment();
+            if (nonNull(previous) && !previous.isFailed()) {
+                return new CachedConfiguration(previous.value(), previous.content(), null, false, expiresAt(negativeTtlNanos), false);
+            }
+            return new CachedConfiguration(null, null, e.getMessage(), true, expiresAt(negativeTtlNanos), false);
+        }
+    }
+
+    private long expiresAt(final long ttl) {
+        return System.nanoTime() + Math.max(0, ttl);
+    }
+
+    private void sweepExpiredFailures(final long now) {
+        final long last = lastSweep.get();
+        if (now - last < Math.max(negativeTtlNanos, MIN_SWEEP_INTERVAL_NANOS) || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        entries.entrySet().removeIf(entry -> entry.getValue().isFailed() && !entry.getValue().isFresh(now));
+    }
+
+    private record CachedConfiguration(Object value, byte[] content, String errorMessage, boolean failed, long expiresAt, boolean permanent) {
+
+        boolean isFailed() {
+            return failed;
+        }
+
+        boolean isFresh(final long now) {
+            return permanent || now - expiresAt < 0;
+        }
+
+    }
+
+}
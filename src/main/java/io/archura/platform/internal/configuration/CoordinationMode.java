@@ -0,0 +1,31 @@
+package io.archura.platform.internal.configuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.stream.Stream;
+
+public enum CoordinationMode {
+    NONE("none"),
+    LEASE("lease"),
+    SHARDED("sharded");
+
+    private final String key;
+
+    CoordinationMode(final String key) {
+        this.key = key;
+    }
+
+    @JsonValue
+    public String getKey() {
+        return key;
+    }
+
+    @JsonCreator
+    public static CoordinationMode from(final String value) {
+        return Stream.of(values())
+                .filter(mode -> mode.key.equalsIgnoreCase(value))
+                .findFirst()
+                .orElse(NONE);
+    }
+}
@@ -0,0 +1,32 @@
+package io.archura.platform.internal.configuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import io.archura.platform.api.exception.ConfigurationException;
+
+import java.util.stream.Stream;
+
+public enum FunctionLifecycle {
+    SINGLETON("singleton"),
+    POOLED("pooled"),
+    PROTOTYPE("prototype");
+
+    private final String key;
+
+    FunctionLifecycle(final String key) {
+        this.key = key;
+    }
+
+    @JsonValue
+    public String getKey() {
+        return key;
+    }
+
+    @JsonCreator
+    public static FunctionLifecycle from(final String value) {
+        return Stream.of(values())
+                .filter(lifecycle -> lifecycle.key.equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new ConfigurationException(String.format("Unknown function lifecycle: '%s'", value)));
+    }
+}
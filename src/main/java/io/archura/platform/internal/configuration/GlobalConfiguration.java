@@ -8,23 +8,132 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Data
 public class GlobalConfiguration {
+    public static final int DEFAULT_POOL_SIZE = 16;
+
     private List<PreFilterConfiguration> pre = new ArrayList<>();
     private List<PostFilterConfiguration> post = new ArrayList<>();
-    private Map<String, EnvironmentConfiguration> environments = new HashMap<>();
+    private Map<String, EnvironmentConfiguration> environments = new ConcurrentHashMap<>();
     private GlobalConfig config = new GlobalConfig();
     private CacheConfiguration cacheConfiguration;
     private IIFEConfiguration iifeConfiguration;
     private StreamConfiguration streamConfiguration;
     private ScheduledConfiguration scheduledConfiguration;
 
+    public void setEnvironments(final Map<String, EnvironmentConfiguration> environments) {
+        this.environments = new ConcurrentHashMap<>(environments);
+    }
+
     @Data
     public static class GlobalConfig extends Configuration {
         private String redisUrl;
         private String codeRepositoryUrl;
         private String archuraPlatformToken;
+        private Map<String, List<String>> prefetch = new HashMap<>();
+        private NearCacheConfiguration nearCache = new NearCacheConfiguration();
+        private CacheCodecConfiguration cacheCodec = new CacheCodecConfiguration();
+        private Map<String, CacheCodecConfiguration> tenantCacheCodecs = new HashMap<>();
+        private CacheBatchingConfiguration cacheBatching = new CacheBatchingConfiguration();
+        private StreamProducerConfiguration streamProducer = new StreamProducerConfiguration();
+        private StreamPollerConfiguration streamPoller = new StreamPollerConfiguration();
+        private Map<String, Integer> streamPartitions = new HashMap<>();
+        private Map<String, StreamTransportConfiguration> streamTransports = new HashMap<>();
+        private SchedulerConfiguration scheduler = new SchedulerConfiguration();
+        private AdmissionConfiguration admission = new AdmissionConfiguration();
+    }
+
+    @Data
+    public static class StreamPollerConfiguration {
+        private int shards = 4;
+        private int count = 100;
+        private long blockMillis = 1000;
+        private int ackBatchSize = 256;
+        private long ackLingerMillis = 10;
+        private int ackQueueSize = 16_384;
+        private long claimIntervalSeconds = 30;
+        private long claimMinIdleSeconds = 60;
+        private int claimCount = 100;
+        private int maxDeliveries = 16;
+    }
+
+    @Data
+    public static class SchedulerConfiguration {
+        private long tickMillis = 10;
+        private int maxConcurrentPerTenant = 16;
+        private CoordinationMode coordination = CoordinationMode.NONE;
+        private String coordinationStore = "redis";
+        private long leaseSeconds = 60;
+        private long heartbeatSeconds = 5;
+        private long memberTtlSeconds = 15;
+        private int virtualNodes = 64;
+    }
+
+    @Data
+    public static class AdmissionConfiguration {
+        private boolean enabled;
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 1000;
+        private int queueSize = 100;
+        private long queueTimeoutMillis = 50;
+        private double tolerance = 1.5;
+        private double smoothing = 0.2;
+        private int longWindow = 600;
+        private long retryAfterSeconds = 1;
+    }
+
+    @Data
+    public static class StreamTransportConfiguration {
+        private String transport = "redis";
+        private int bufferSize = 8192;
+        private int batchSize = 256;
+        private long backpressureTimeoutMillis = 1000;
+        private boolean mirror;
+    }
+
+    @Data
+    public static class StreamProducerConfiguration {
+        private boolean enabled;
+        private long lingerMillis = 5;
+        private int batchSize = 256;
+        private int queueSize = 16_384;
+        private int maxPendingPerTenant = 10_000;
+        private long backpressureTimeoutMillis = 1000;
+    }
+
+    @Data
+    public static class CacheBatchingConfiguration {
+        private boolean enabled;
+        private long windowMicros = 200;
+        private int maxBatchSize = 128;
+        private int queueSize = 8192;
+    }
+
+    @Data
+    public static class HttpClientConfiguration {
+        private int maxConcurrentRequests = 256;
+        private long acquireTimeoutMillis = 1000;
+        private long connectTimeoutMillis = 10_000;
+        private long requestTimeoutMillis;
+        private boolean http2 = true;
+        private List<String> warmupUrls = new ArrayList<>();
+    }
+
+    @Data
+    public static class CacheCodecConfiguration {
+        private String name = "json";
+        private int compressionThreshold;
+    }
+
+    @Data
+    public static class NearCacheConfiguration {
+        private boolean enabled;
+        private int maxSize = 10_000;
+        private long maxWeight = 64L * 1024 * 1024;
+        private long ttl = 60;
     }
 
     @Data
@@ -32,6 +141,8 @@ public class GlobalConfiguration {
         private String name;
         private String version;
         private boolean reload;
+        private FunctionLifecycle lifecycle = FunctionLifecycle.PROTOTYPE;
+        private int poolSize = DEFAULT_POOL_SIZE;
         private JsonNode config;
     }
 
@@ -40,6 +151,8 @@ public class GlobalConfiguration {
         private String name;
         private String version;
         private boolean reload;
+        private FunctionLifecycle lifecycle = FunctionLifecycle.PROTOTYPE;
+        private int poolSize = DEFAULT_POOL_SIZE;
         private JsonNode config;
     }
 
@@ -47,7 +160,11 @@ public class GlobalConfiguration {
     public static class EnvironmentConfiguration {
         private List<PreFilterConfiguration> pre = new ArrayList<>();
         private List<PostFilterConfiguration> post = new ArrayList<>();
-        private Map<String, TenantConfiguration> tenants = new HashMap<>();
+        private Map<String, TenantConfiguration> tenants = new ConcurrentHashMap<>();
+
+        public void setTenants(final Map<String, TenantConfiguration> tenants) {
+            this.tenants = new ConcurrentHashMap<>(tenants);
+        }
     }
 
 
@@ -57,18 +174,23 @@ public class GlobalConfiguration {
         private List<PreFilterConfiguration> pre = new ArrayList<>();
         private List<PostFilterConfiguration> post = new ArrayList<>();
         private Map<String, TenantConfiguration.RouteConfiguration> routes = new HashMap<>();
+        private Long timeoutMillis;
+        private HttpClientConfiguration httpClient;
 
         @Data
         public static class RouteConfiguration {
             private List<PreFilterConfiguration> pre = new ArrayList<>();
             private List<PostFilterConfiguration> post = new ArrayList<>();
             private TenantConfiguration.RouteConfiguration.FunctionConfiguration function;
+            private Long timeoutMillis;
 
             @Data
             public static class FunctionConfiguration {
                 private String name;
                 private String version;
                 private boolean reload;
+                private FunctionLifecycle lifecycle = FunctionLifecycle.PROTOTYPE;
+                private int poolSize = DEFAULT_POOL_SIZE;
                 private JsonNode config;
             }
         }
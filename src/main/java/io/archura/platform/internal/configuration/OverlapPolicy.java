@@ -0,0 +1,30 @@
+package io.archura.platform.internal.configuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.stream.Stream;
+
+public enum OverlapPolicy {
+    SKIP("skip"),
+    QUEUE("queue");
+
+    private final String key;
+
+    OverlapPolicy(final String key) {
+        this.key = key;
+    }
+
+    @JsonValue
+    public String getKey() {
+        return key;
+    }
+
+    @JsonCreator
+    public static OverlapPolicy from(final String value) {
+        return Stream.of(values())
+                .filter(policy -> policy.key.equalsIgnoreCase(value))
+                .findFirst()
+                .orElse(SKIP);
+    }
+}
@@ -32,6 +32,7 @@ public class ScheduledConfiguration {
         private String version;
         private String cron;
         private String zone;
+        private OverlapPolicy overlap = OverlapPolicy.SKIP;
         private String logLevel;
         private boolean reload;
         private JsonNode config;
@@ -33,6 +33,11 @@ public class StreamConfiguration {
         private String topic;
         private String logLevel;
         private boolean reload;
+        private AckMode ackMode = AckMode.AUTO;
+        private int concurrency = 1;
+        private int maxInFlight = 1000;
+        private int maxBatchSize = 100;
+        private long maxWaitMillis = 100;
         private JsonNode config;
     }
 
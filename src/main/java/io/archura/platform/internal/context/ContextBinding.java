@@ -0,0 +1,42 @@
+package io.archura.platform.internal.context;
+
+import io.archura.platform.api.cache.Cache;
+import io.archura.platform.api.logger.Logger;
+import io.archura.platform.api.stream.LightStream;
+
+import java.net.http.HttpClient;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Resources of a context that are resolved once per environment, tenant, log level and log template,
+ * and shared by all contexts with the same attributes.
+ *
+ * @param environment environment attribute the resources are resolved for.
+ * @param tenantId    tenant attribute the resources are resolved for.
+ * @param logLevel    log level attribute the logger is created for.
+ * @param logTemplate log template attribute the logger is created for.
+ * @param cache       tenant cache.
+ * @param lightStream tenant stream.
+ * @param logger      logger.
+ * @param httpClient  tenant http client.
+ */
+public record ContextBinding(
+        Object environment,
+        Object tenantId,
+        Object logLevel,
+        Object logTemplate,
+        Optional<Cache> cache,
+        Optional<LightStream> lightStream,
+        Logger logger,
+        HttpClient httpClient
+) {
+
+    public boolean matches(final Object environment, final Object tenantId, final Object logLevel, final Object logTemplate) {
+        return Objects.equals(this.environment, environment)
+                && Objects.equals(this.tenantId, tenantId)
+                && Objects.equals(this.logLevel, logLevel)
+                && Objects.equals(this.logTemplate, logTemplate);
+    }
+
+}
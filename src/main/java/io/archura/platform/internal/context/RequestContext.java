@@ -5,12 +5,22 @@ import io.archura.platform.api.cache.Cache;
 import io.archura.platform.api.context.Context;
 import io.archura.platform.api.logger.Logger;
 import io.archura.platform.api.stream.LightStream;
+import io.archura.platform.internal.deadline.DeadlineCache;
+import io.archura.platform.internal.deadline.DeadlineHttpClient;
+import io.archura.platform.internal.deadline.DeadlineStream;
+import io.archura.platform.internal.deadline.RequestDeadline;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 
 import java.net.http.HttpClient;
 import java.util.Optional;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
 @Data
 @Builder(toBuilder = true)
 public class RequestContext implements Context {
@@ -20,5 +30,54 @@ public class RequestContext implements Context {
     private Logger logger;
     private HttpClient httpClient;
     private ObjectMapper objectMapper;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ContextBinding binding;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private RequestDeadline deadline;
+
+    public static RequestContext of(final ContextBinding binding, final ObjectMapper objectMapper) {
+        return of(binding, objectMapper, null);
+    }
+
+    /**
+     * Creates a context whose http client, cache and stream calls are bounded by the deadline of the request.
+     *
+     * @param binding      resources of the context.
+     * @param objectMapper object mapper.
+     * @param deadline     deadline of the request, null for contexts without a request.
+     * @return context.
+     */
+    public static RequestContext of(final ContextBinding binding, final ObjectMapper objectMapper, final RequestDeadline deadline) {
+        final RequestContext context = RequestContext.builder()
+                .objectMapper(objectMapper)
+                .deadline(deadline)
+                .build();
+        context.bind(binding);
+        return context;
+    }
+
+    public boolean isBoundTo(final Object environment, final Object tenantId, final Object logLevel, final Object logTemplate) {
+        return nonNull(binding) && binding.matches(environment, tenantId, logLevel, logTemplate);
+    }
+
+    public Optional<RequestDeadline> getDeadline() {
+        return Optional.ofNullable(deadline);
+    }
+
+    public void bind(final ContextBinding binding) {
+        this.binding = binding;
+        this.logger = binding.logger();
+        if (isNull(deadline)) {
+            this.cache = binding.cache();
+            this.lightStream = binding.lightStream();
+            this.httpClient = binding.httpClient();
+        } else {
+            this.cache = binding.cache().map(tenantCache -> DeadlineCache.wrap(tenantCache, deadline));
+            this.lightStream = binding.lightStream().map(tenantStream -> DeadlineStream.wrap(tenantStream, deadline));
+            this.httpClient = new DeadlineHttpClient(binding.httpClient(), deadline);
+        }
+    }
 
 }
@@ -0,0 +1,126 @@
+package io.archura.platform.internal.deadline;
+
+import io.archura.platform.api.cache.Cache;
+import io.archura.platform.external.BinaryCache;
+import io.archura.platform.internal.cache.TenantCache;
+import jdk.internal.reflect.Reflection;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tenant cache of a request, calls fail without reaching Redis once the deadline of the request has passed.
+ * A call still running when the deadline passes is interrupted together with the request thread.
+ */
+public class DeadlineCache implements Cache, BinaryCache {
+
+    static {
+        Reflection.registerFieldsToFilter(DeadlineCache.class, Set.of("delegate", "deadline"));
+    }
+
+    private final TenantCache delegate;
+    private final RequestDeadline deadline;
+
+    public DeadlineCache(final TenantCache delegate, final RequestDeadline deadline) {
+        this.delegate = delegate;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Wraps a tenant cache with the deadline of a request.
+     *
+     * @param cache    cache of the context.
+     * @param deadline deadline of the request.
+     * @return deadline aware cache, or the given cache if it is not a tenant cache.
+     */
+    public static Cache wrap(final Cache cache, final RequestDeadline deadline) {
+        return cache instanceof TenantCache tenantCache ? new DeadlineCache(tenantCache, deadline) : cache;
+    }
+
+    @Override
+    public Map<String, Object> get(String hashKey) {
+        deadline.remainingNanosFor("cache get");
+        return delegate.get(hashKey);
+    }
+
+    @Override
+    public List<Map<String, Object>> multiGet(Collection<String> hashKeys) {
+        deadline.remainingNanosFor("cache multiGet");
+        return delegate.multiGet(hashKeys);
+    }
+
+    @Override
+    public void put(String hashKey, Map<String, Object> value) {
+        deadline.remainingNanosFor("cache put");
+        delegate.put(hashKey, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends Map<String, Object>> map) {
+        deadline.remainingNanosFor("cache putAll");
+        delegate.putAll(map);
+    }
+
+    @Override
+    public Boolean putIfAbsent(String hashKey, Map<String, Object> value) {
+        deadline.remainingNanosFor("cache putIfAbsent");
+        return delegate.putIfAbsent(hashKey, value);
+    }
+
+    @Override
+    public Boolean hasKey(String hashKey) {
+        deadline.remainingNanosFor("cache hasKey");
+        return delegate.hasKey(hashKey);
+    }
+
+    @Override
+    public Set<String> keys() {
+        deadline.remainingNanosFor("cache keys");
+        return delegate.keys();
+    }
+
+    @Override
+    public List<Map<String, Object>> values() {
+        deadline.remainingNanosFor("cache values");
+        return delegate.values();
+    }
+
+    @Override
+    public Map<String, Map<String, Object>> entries() {
+        deadline.remainingNanosFor("cache entries");
+        return delegate.entries();
+    }
+
+    @Override
+    public Long size() {
+        deadline.remainingNanosFor("cache size");
+        return delegate.size();
+    }
+
+    @Override
+    public void delete(String... hashKeys) {
+        deadline.remainingNanosFor("cache delete");
+        delegate.delete(hashKeys);
+    }
+
+    @Override
+    public byte[] getBytes(String hashKey) {
+        deadline.remainingNanosFor("cache getBytes");
+        return delegate.getBytes(hashKey);
+    }
+
+    @Override
+    public List<byte[]> multiGetBytes(Collection<String> hashKeys) {
+        deadline.remainingNanosFor("cache multiGetBytes");
+        return delegate.multiGetBytes(hashKeys);
+    }
+
+    @Override
+    public void putBytes(String hashKey, byte[] value) {
+        deadline.remainingNanosFor("cache putBytes");
+        delegate.putBytes(hashKey, value);
+    }
+
+}
@@ -0,0 +1,12 @@
+package io.archura.platform.internal.deadline;
+
+/**
+ * Thrown by a call made after the deadline of its request has passed.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(final String message) {
+        super(message);
+    }
+
+}
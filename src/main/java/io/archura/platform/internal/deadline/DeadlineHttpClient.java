@@ -0,0 +1,137 @@
+package io.archura.platform.internal.deadline;
+
+import jdk.internal.reflect.Reflection;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Http client of a request, every call times out at the latest at the deadline of the request
+ * and fails without being sent once the deadline has passed.
+ */
+public class DeadlineHttpClient extends HttpClient {
+
+    static {
+        Reflection.registerFieldsToFilter(DeadlineHttpClient.class, Set.of("delegate", "deadline"));
+    }
+
+    private final HttpClient delegate;
+    private final RequestDeadline deadline;
+
+    public DeadlineHttpClient(final HttpClient delegate, final RequestDeadline deadline) {
+        this.delegate = delegate;
+        this.deadline = deadline;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(
+            final HttpRequest request,
+            final HttpResponse.BodyHandler<T> responseBodyHandler
+    ) throws IOException, InterruptedException {
+        return delegate.send(withDeadline(request), responseBodyHandler);
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(
+            final HttpRequest request,
+            final HttpResponse.BodyHandler<T> responseBodyHandler
+    ) {
+        try {
+            return delegate.sendAsync(withDeadline(request), responseBodyHandler);
+        } catch (HttpTimeoutException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(
+            final HttpRequest request,
+            final HttpResponse.BodyHandler<T> responseBodyHandler,
+            final HttpResponse.PushPromiseHandler<T> pushPromiseHandler
+    ) {
+        try {
+            return delegate.sendAsync(withDeadline(request), responseBodyHandler, pushPromiseHandler);
+        } catch (HttpTimeoutException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private HttpRequest withDeadline(final HttpRequest request) throws HttpTimeoutException {
+        final long remaining = deadline.remainingNanos();
+        if (remaining <= 0) {
+            throw new HttpTimeoutException(String.format("Request deadline exceeded before calling %s", request.uri()));
+        }
+        final Optional<Duration> timeout = request.timeout();
+        if (timeout.isPresent() && timeout.get().toNanos() <= remaining) {
+            return request;
+        }
+        return HttpRequest.newBuilder(request, (name, value) -> true)
+                .timeout(Duration.ofNanos(remaining))
+                .build();
+    }
+
+    @Override
+    public Optional<CookieHandler> cookieHandler() {
+        return delegate.cookieHandler();
+    }
+
+    @Override
+    public Optional<Duration> connectTimeout() {
+        return delegate.connectTimeout();
+    }
+
+    @Override
+    public Redirect followRedirects() {
+        return delegate.followRedirects();
+    }
+
+    @Override
+    public Optional<ProxySelector> proxy() {
+        return delegate.proxy();
+    }
+
+    @Override
+    public SSLContext sslContext() {
+        return delegate.sslContext();
+    }
+
+    @Override
+    public SSLParameters sslParameters() {
+        return delegate.sslParameters();
+    }
+
+    @Override
+    public Optional<Authenticator> authenticator() {
+        return delegate.authenticator();
+    }
+
+    @Override
+    public Version version() {
+        return delegate.version();
+    }
+
+    @Override
+    public Optional<Executor> executor() {
+        return delegate.executor();
+    }
+
+    @Override
+    public WebSocket.Builder newWebSocketBuilder() {
+        return delegate.newWebSocketBuilder();
+    }
+
+}
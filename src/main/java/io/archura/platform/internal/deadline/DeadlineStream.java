@@ -0,0 +1,72 @@
+package io.archura.platform.internal.deadline;
+
+import io.archura.platform.api.stream.LightStream;
+import io.archura.platform.external.AsyncLightStream;
+import io.archura.platform.external.KeyedLightStream;
+import io.archura.platform.external.StreamAcknowledger;
+import io.archura.platform.internal.stream.TenantStream;
+import jdk.internal.reflect.Reflection;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tenant stream of a request, calls fail without reaching the stream once the deadline of the request has passed
+ * and asynchronous sends complete with a timeout at the latest at the deadline.
+ */
+public class DeadlineStream implements LightStream, KeyedLightStream, AsyncLightStream, StreamAcknowledger {
+
+    static {
+        Reflection.registerFieldsToFilter(DeadlineStream.class, Set.of("delegate", "deadline"));
+    }
+
+    private final TenantStream delegate;
+    private final RequestDeadline deadline;
+
+    public DeadlineStream(final TenantStream delegate, final RequestDeadline deadline) {
+        this.delegate = delegate;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Wraps a tenant stream with the deadline of a request.
+     *
+     * @param lightStream stream of the context.
+     * @param deadline    deadline of the request.
+     * @return deadline aware stream, or the given stream if it is not a tenant stream.
+     */
+    public static LightStream wrap(final LightStream lightStream, final RequestDeadline deadline) {
+        return lightStream instanceof TenantStream tenantStream ? new DeadlineStream(tenantStream, deadline) : lightStream;
+    }
+
+    public Optional<String> send(final String topicName, final byte[] value) {
+        deadline.remainingNanosFor("stream send");
+        return delegate.send(topicName, value);
+    }
+
+    @Override
+    public Optional<String> send(final String topicName, final byte[] key, final byte[] value) {
+        deadline.remainingNanosFor("stream send");
+        return delegate.send(topicName, key, value);
+    }
+
+    @Override
+    public CompletableFuture<String> sendAsync(final String topicName, final byte[] value) {
+        final long remaining;
+        try {
+            remaining = deadline.remainingNanosFor("stream sendAsync");
+        } catch (DeadlineExceededException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return delegate.sendAsync(topicName, value).orTimeout(remaining, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public long acknowledge(final String topicName, final String... recordIds) {
+        deadline.remainingNanosFor("stream acknowledge");
+        return delegate.acknowledge(topicName, recordIds);
+    }
+
+}
@@ -0,0 +1,101 @@
+package io.archura.platform.internal.deadline;
+
+import io.archura.platform.internal.concurrent.TimerWheel;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Deadline of a request in flight, measured from the start of the request.
+ */
+public class RequestDeadline {
+
+    private final TimerWheel timerWheel;
+    private final Thread thread;
+    private final long startNanos;
+    private volatile long deadlineNanos;
+    private TimerWheel.Timeout timeout;
+    private long generation;
+    private boolean completed;
+    private boolean expired;
+
+    RequestDeadline(final TimerWheel timerWheel, final Thread thread, final long startNanos) {
+        this.timerWheel = timerWheel;
+        this.thread = thread;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Moves the deadline to the given time after the start of the request, a deadline already passed expires
+     * on the next tick of the wheel.
+     *
+     * @param timeoutMillis time the request may take.
+     */
+    public synchronized void setTimeout(final long timeoutMillis) {
+        if (completed || expired) {
+            return;
+        }
+        if (nonNull(timeout)) {
+            timeout.cancel();
+        }
+        deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        final long current = ++generation;
+        timeout = timerWheel.schedule(() -> expire(current), deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the time left until the deadline, zero or negative once it has passed.
+     *
+     * @return remaining time in nanoseconds.
+     */
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * Returns the time left until the deadline.
+     *
+     * @param operation operation about to be called, used in the error message.
+     * @return remaining time in nanoseconds, always positive.
+     * @throws DeadlineExceededException if the deadline has passed.
+     */
+    public long remainingNanosFor(final String operation) {
+        final long remaining = remainingNanos();
+        if (remaining <= 0) {
+            throw new DeadlineExceededException(String.format("Request deadline exceeded before %s", operation));
+        }
+        return remaining;
+    }
+
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    /**
+     * Completes the request, the deadline can no longer interrupt the thread after this call.
+     *
+     * @return true if the deadline expired before the request completed.
+     */
+    public synchronized boolean complete() {
+        if (!completed) {
+            completed = true;
+            if (nonNull(timeout)) {
+                timeout.cancel();
+            }
+        }
+        return expired;
+    }
+
+    private synchronized void expire(final long scheduledGeneration) {
+        // a timeout replaced while it was expiring must not interrupt the request
+        if (completed || expired || scheduledGeneration != generation) {
+            return;
+        }
+        expired = true;
+        if (thread.isVirtual() && thread.isAlive()) {
+            thread.interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package io.archura.platform.internal.deadline;
+
+import io.archura.platform.internal.concurrent.TimerWheel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the deadlines of the requests in flight on a single shared timer wheel.
+ * <ul>
+ *     <li>Starting, moving and completing a deadline are constant time and create no threads.</li>
+ *     <li>An expired deadline interrupts the virtual thread handling the request if the request is still in flight.</li>
+ * </ul>
+ */
+public class RequestDeadlines implements AutoCloseable {
+
+    public static final String DEADLINE_ATTRIBUTE = RequestDeadline.class.getName();
+
+    private final TimerWheel timerWheel;
+
+    /**
+     * Creates the deadline wheel and starts its thread.
+     *
+     * @param tickMillis duration of a wheel tick, deadlines expire at most one tick late.
+     */
+    public RequestDeadlines(final long tickMillis) {
+        this.timerWheel = new TimerWheel("archura-request-deadlines", tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts the deadline of a request handled by the given thread.
+     *
+     * @param thread        thread handling the request.
+     * @param timeoutMillis time the request may take.
+     * @return deadline of the request.
+     */
+    public RequestDeadline start(final Thread thread, final long timeoutMillis) {
+        final RequestDeadline deadline = new RequestDeadline(timerWheel, thread, System.nanoTime());
+        deadline.setTimeout(timeoutMillis);
+        return deadline;
+    }
+
+    /**
+     * Returns the number of deadlines waiting on the wheel.
+     *
+     * @return number of pending deadlines.
+     */
+    public int getPending() {
+        return timerWheel.getPending();
+    }
+
+    @Override
+    public void close() {
+        timerWheel.close();
+    }
+
+}
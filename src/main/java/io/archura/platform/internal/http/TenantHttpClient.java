@@ -0,0 +1,289 @@
+package io.archura.platform.internal.http;
+
+import io.archura.platform.internal.configuration.GlobalConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.internal.reflect.Reflection;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Http client of a tenant.
+ * <ul>
+ *     <li>Without a configuration the tenant shares the default http client of the platform,
+ *     a configured tenant gets its own client and connection pool running on the virtual thread executor.</li>
+ *     <li>The number of concurrent requests of a configured tenant is limited, a blocking send waits for the acquire timeout
+ *     and an asynchronous send fails at once when the limit is reached.</li>
+ *     <li>Requests time out at the latest after the request timeout of the configuration.</li>
+ *     <li>Latency and in-flight requests are measured per upstream host, the hosts of the warm up urls and the first
+ *     64 other hosts get their own metrics, later hosts share the metrics of the {@code other} host.</li>
+ * </ul>
+ */
+public class TenantHttpClient extends HttpClient {
+
+    static {
+        Reflection.registerFieldsToFilter(TenantHttpClient.class, Set.of("tenantKey", "defaultHttpClient", "executorService", "meterRegistry", "hosts", "rejected", "state"));
+    }
+
+    private static final String UNKNOWN_HOST = "unknown";
+    private static final String OTHER_HOST = "other";
+    private static final int MAX_HOSTS = 64;
+
+    private final String tenantKey;
+    private final HttpClient defaultHttpClient;
+    private final ExecutorService executorService;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, HostMetrics> hosts = new ConcurrentHashMap<>();
+    private final Counter rejected;
+    private volatile State state;
+
+    public TenantHttpClient(
+            final String tenantKey,
+            final HttpClient defaultHttpClient,
+            final ExecutorService executorService,
+            final MeterRegistry meterRegistry
+    ) {
+        this.tenantKey = tenantKey;
+        this.defaultHttpClient = defaultHttpClient;
+        this.executorService = executorService;
+        this.meterRegistry = meterRegistry;
+        this.rejected = Counter.builder("archura.http.client.rejected").tag("tenant", tenantKey).register(meterRegistry);
+        this.state = new State(null, defaultHttpClient, null);
+    }
+
+    /**
+     * Applies the http client configuration of the tenant, a new client is only created when the configuration values change.
+     * Requests in flight finish on the client they were sent with.
+     *
+     * @param configuration http client configuration, null to share the default client.
+     */
+    public void configure(final GlobalConfiguration.HttpClientConfiguration configuration) {
+        if (Objects.equals(state.configuration(), configuration)) {
+            return;
+        }
+        synchronized (this) {
+            if (Objects.equals(state.configuration(), configuration)) {
+                return;
+            }
+            if (isNull(configuration)) {
+                state = new State(null, defaultHttpClient, null);
+                return;
+            }
+            final HttpClient client = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofMillis(configuration.getConnectTimeoutMillis()))
+                    .version(configuration.isHttp2() ? Version.HTTP_2 : Version.HTTP_1_1)
+                    .executor(executorService)
+                    .build();
+            final Semaphore permits = configuration.getMaxConcurrentRequests() > 0 ? new Semaphore(configuration.getMaxConcurrentRequests()) : null;
+            state = new State(configuration, client, permits);
+            warmUp(client, configuration);
+        }
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(
+            final HttpRequest request,
+            final HttpResponse.BodyHandler<T> responseBodyHandler
+    ) throws IOException, InterruptedException {
+        final State current = state;
+        final Semaphore permits = current.permits();
+        if (nonNull(permits) && !permits.tryAcquire(current.configuration().getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+            rejected.increment();
+            throw new HttpTimeoutException(String.format("Too many concurrent requests of '%s' waiting for '%s'", tenantKey, request.uri()));
+        }
+        final HostMetrics metrics = getHostMetrics(request.uri());
+        metrics.inFlight().incrementAndGet();
+        final long start = System.nanoTime();
+        try {
+            return current.client().send(withTimeout(request, current), responseBodyHandler);
+        } finally {
+            metrics.latency().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            metrics.inFlight().decrementAndGet();
+            if (nonNull(permits)) {
+                permits.release();
+            }
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(
+            final HttpRequest request,
+            final HttpResponse.BodyHandler<T> responseBodyHandler
+    ) {
+        return sendAsync(request, responseBodyHandler, null);
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(
+            final HttpRequest request,
+            final HttpResponse.BodyHandler<T> responseBodyHandler,
+            final HttpResponse.PushPromiseHandler<T> pushPromiseHandler
+    ) {
+        final State current = state;
+        final Semaphore permits = current.permits();
+        if (nonNull(permits) && !permits.tryAcquire()) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new HttpTimeoutException(String.format("Too many concurrent requests of '%s'", tenantKey)));
+        }
+        final HostMetrics metrics = getHostMetrics(request.uri());
+        metrics.inFlight().incrementAndGet();
+        final long start = System.nanoTime();
+        final CompletableFuture<HttpResponse<T>> response;
+        try {
+            response = current.client().sendAsync(withTimeout(request, current), responseBodyHandler, pushPromiseHandler);
+        } catch (RuntimeException e) {
+            metrics.inFlight().decrementAndGet();
+            if (nonNull(permits)) {
+                permits.release();
+            }
+            throw e;
+        }
+        return response.whenComplete((result, throwable) -> {
+            metrics.latency().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            metrics.inFlight().decrementAndGet();
+            if (nonNull(permits)) {
+                permits.release();
+            }
+        });
+    }
+
+    private HttpRequest withTimeout(final HttpRequest request, final State current) {
+        if (isNull(current.configuration()) || current.configuration().getRequestTimeoutMillis() <= 0) {
+            return request;
+        }
+        final Duration requestTimeout = Duration.ofMillis(current.configuration().getRequestTimeoutMillis());
+        final Optional<Duration> timeout = request.timeout();
+        if (timeout.isPresent() && timeout.get().compareTo(requestTimeout) <= 0) {
+            return request;
+        }
+        return HttpRequest.newBuilder(request, (name, value) -> true)
+                .timeout(requestTimeout)
+                .build();
+    }
+
+    private void warmUp(final HttpClient client, final GlobalConfiguration.HttpClientConfiguration configuration) {
+        for (String url : configuration.getWarmupUrls()) {
+            try {
+                final URI uri = URI.create(url);
+                // the warm up hosts are the known upstreams of the tenant, they are registered before any other host
+                getHostMetrics(uri);
+                final HttpRequest request = HttpRequest.newBuilder(uri)
+                        .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                        .timeout(Duration.ofMillis(configuration.getConnectTimeoutMillis()))
+                        .build();
+                // only the connection is kept, the response and any failure are ignored
+                client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+            } catch (IllegalArgumentException e) {
+                // invalid warm up url, nothing to connect to
+            }
+        }
+    }
+
+    private HostMetrics getHostMetrics(final URI uri) {
+        final String host = Optional.ofNullable(uri.getHost()).orElse(UNKNOWN_HOST);
+        final HostMetrics metrics = hosts.get(host);
+        if (nonNull(metrics)) {
+            return metrics;
+        }
+        // tenant code chooses the hosts, the number of tagged meters is bounded
+        return hosts.computeIfAbsent(hosts.size() < MAX_HOSTS ? host : OTHER_HOST, this::createHostMetrics);
+    }
+
+    private HostMetrics createHostMetrics(final String host) {
+        final Timer latency = Timer.builder("archura.http.client.requests")
+                .tag("tenant", tenantKey)
+                .tag("host", host)
+                .register(meterRegistry);
+        final AtomicInteger inFlight = new AtomicInteger();
+        Gauge.builder("archura.http.client.in.flight", inFlight, AtomicInteger::get)
+                .tag("tenant", tenantKey)
+                .tag("host", host)
+                .register(meterRegistry);
+        return new HostMetrics(latency, inFlight);
+    }
+
+    @Override
+    public Optional<CookieHandler> cookieHandler() {
+        return state.client().cookieHandler();
+    }
+
+    @Override
+    public Optional<Duration> connectTimeout() {
+        return state.client().connectTimeout();
+    }
+
+    @Override
+    public Redirect followRedirects() {
+        return state.client().followRedirects();
+    }
+
+    @Override
+    public Optional<ProxySelector> proxy() {
+        return state.client().proxy();
+    }
+
+    @Override
+    public SSLContext sslContext() {
+        return state.client().sslContext();
+    }
+
+    @Override
+    public SSLParameters sslParameters() {
+        return state.client().sslParameters();
+    }
+
+    @Override
+    public Optional<Authenticator> authenticator() {
+        return state.client().authenticator();
+    }
+
+    @Override
+    public Version version() {
+        return state.client().version();
+    }
+
+    @Override
+    public Optional<Executor> executor() {
+        return state.client().executor();
+    }
+
+    @Override
+    public WebSocket.Builder newWebSocketBuilder() {
+        return state.client().newWebSocketBuilder();
+    }
+
+    private record State(GlobalConfiguration.HttpClientConfiguration configuration, HttpClient client, Semaphore permits) {
+    }
+
+    private record HostMetrics(Timer latency, AtomicInteger inFlight) {
+    }
+
+}
@@ -0,0 +1,23 @@
+package io.archura.platform.internal.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Creates the http clients of the tenants, unconfigured tenants share the default http client.
+ */
+@RequiredArgsConstructor
+public class TenantHttpClientFactory {
+
+    private final HttpClient defaultHttpClient;
+    private final ExecutorService executorService;
+    private final MeterRegistry meterRegistry;
+
+    public TenantHttpClient create(final String tenantKey) {
+        return new TenantHttpClient(tenantKey, defaultHttpClient, executorService, meterRegistry);
+    }
+
+}
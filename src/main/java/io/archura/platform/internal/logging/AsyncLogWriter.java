@@ -0,0 +1,221 @@
+package io.archura.platform.internal.logging;
+
+import io.archura.platform.internal.concurrent.MpscRingBuffer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous log writer, callers only publish the message to a bounded ring buffer
+ * and a single background thread drains the buffer and writes the messages in batches to a channel.
+ */
+public class AsyncLogWriter implements LogWriter, MeterBinder {
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final int DRAIN_BATCH_SIZE = 4096;
+
+    private final MpscRingBuffer<String> buffer;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final int sampleThreshold;
+    private final WritableByteChannel channel;
+    private final ByteBuffer byteBuffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder writeErrors = new LongAdder();
+    private final AtomicLong sampleCounter = new AtomicLong();
+    private final Thread drainer;
+    private volatile boolean running = true;
+
+    /**
+     * Creates the writer and starts the background drainer thread.
+     *
+     * @param channel        channel to write the messages to.
+     * @param bufferSize     number of messages the ring buffer can hold.
+     * @param batchBytes     size of the direct byte buffer used to batch writes.
+     * @param overflowPolicy what to do when the ring buffer is full.
+     * @param sampleRate     one of every sampleRate messages is kept when the SAMPLE policy is active.
+     */
+    public AsyncLogWriter(
+            final WritableByteChannel channel,
+            final int bufferSize,
+            final int batchBytes,
+            final OverflowPolicy overflowPolicy,
+            final int sampleRate
+    ) {
+        this.channel = channel;
+        this.buffer = new MpscRingBuffer<>(bufferSize);
+        this.byteBuffer = ByteBuffer.allocateDirect(Math.max(1024, batchBytes));
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.sampleThreshold = buffer.capacity() - buffer.capacity() / 4;
+        this.drainer = new Thread(this::drain, "archura-log-writer");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "archura-log-writer-shutdown"));
+    }
+
+    /**
+     * Publishes the message to the ring buffer, the message is written later by the drainer thread.
+     *
+     * @param logLevel log level of OFF, ERROR, WARNING, INFO, DEBUG, TRACE, ALL.
+     * @param message  log message.
+     */
+    @Override
+    public void log(String logLevel, String message) {
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                while (!buffer.offer(message)) {
+                    if (!running) {
+                        dropped.increment();
+                        return;
+                    }
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                }
+            }
+            case SAMPLE -> {
+                if (buffer.size() >= sampleThreshold
+                        && !System.Logger.Level.ERROR.getName().equals(logLevel)
+                        && sampleCounter.incrementAndGet() % sampleRate != 0) {
+                    sampledOut.increment();
+                } else if (!buffer.offer(message)) {
+                    dropped.increment();
+                }
+            }
+            default -> {
+                if (!buffer.offer(message)) {
+                    dropped.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of messages dropped because the buffer was full.
+     *
+     * @return dropped message count.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Number of messages left out by the SAMPLE overflow policy.
+     *
+     * @return sampled out message count.
+     */
+    public long getSampledOutCount() {
+        return sampledOut.sum();
+    }
+
+    /**
+     * Number of failed channel writes.
+     *
+     * @return write error count.
+     */
+    public long getWriteErrorCount() {
+        return writeErrors.sum();
+    }
+
+    /**
+     * Number of messages waiting in the buffer.
+     *
+     * @return pending message count.
+     */
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry meterRegistry) {
+        FunctionCounter.builder("archura.log.dropped", dropped, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("archura.log.sampled.out", sampledOut, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("archura.log.write.errors", writeErrors, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("archura.log.pending", buffer, MpscRingBuffer::size).register(meterRegistry);
+    }
+
+    /**
+     * Stops the drainer thread after the pending messages are written.
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        while (running || !buffer.isEmpty()) {
+            final int count = buffer.drain(this::write, DRAIN_BATCH_SIZE);
+            flush();
+            if (count == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void write(final String message) {
+        try {
+            encode(message);
+        } catch (RuntimeException e) {
+            // a single bad message must not stop the only drainer thread
+            writeErrors.increment();
+        }
+    }
+
+    private void encode(final String message) {
+        final CharBuffer chars = CharBuffer.wrap(message);
+        encoder.reset();
+        CoderResult result = encoder.encode(chars, byteBuffer, true);
+        while (result.isOverflow()) {
+            flush();
+            result = encoder.encode(chars, byteBuffer, true);
+        }
+        while (encoder.flush(byteBuffer).isOverflow()) {
+            flush();
+        }
+        if (byteBuffer.remaining() < LINE_SEPARATOR.length) {
+            flush();
+        }
+        byteBuffer.put(LINE_SEPARATOR);
+    }
+
+    private void flush() {
+        if (byteBuffer.position() == 0) {
+            return;
+        }
+        byteBuffer.flip();
+        try {
+            while (byteBuffer.hasRemaining()) {
+                channel.write(byteBuffer);
+            }
+        } catch (IOException | RuntimeException e) {
+            writeErrors.increment();
+        } finally {
+            byteBuffer.clear();
+        }
+    }
+
+}
@@ -6,10 +6,15 @@ import jdk.internal.reflect.Reflection;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static java.util.Objects.nonNull;
 
 /**
  * Prepares the necessary data for the log message.
@@ -33,7 +38,19 @@ public class DefaultLogger implements Logger {
     private static final String DATETIME_PATTERN = "yyyy-MM-dd HH:mm:ss.SSS";
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern(DATETIME_PATTERN);
     private static final LogWriter logWriter = LogWriter.create();
+    /**
+     * System property to turn off the caller class, method and line capture, enabled by default.
+     */
+    private static final boolean CAPTURE_CALLER = Boolean.parseBoolean(System.getProperty("archura.log.caller", "true"));
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
     private static final String DEFAULT_LOG_TEMPLATE = "%s _GREEN_%5s_RESET_ [_BLUE_%s_RESET_][_PURPLE_%s_RESET_][%18s]_CYAN_[%50s]_RESET_ - %s";
+    private static final Map<String, System.Logger.Level> levels = Stream.of(System.Logger.Level.values())
+            .collect(Collectors.toMap(level -> level.getName().toLowerCase(Locale.ROOT), Function.identity()));
+    /**
+     * Upper bound of the cached loggers, the cache is emptied when a new logger would exceed it.
+     */
+    private static final int MAX_LOGGERS = 10_000;
+    private static final Map<LoggerKey, Logger> loggers = new ConcurrentHashMap<>();
 
     private final System.Logger.Level currentLogLevel;
     private final String environment;
@@ -47,16 +64,36 @@ public class DefaultLogger implements Logger {
         this.logTemplate = logTemplate;
     }
 
+    /**
+     * Returns the logger for the environment, tenant, log level and log template attributes,
+     * loggers are created once and reused for the same attributes until the cache is full.
+     *
+     * @param attributes key value pairs.
+     * @return a Logger implementation.
+     */
     static Logger create(final Map<String, Object> attributes) {
-        String logTemplate = String.valueOf(attributes.getOrDefault(GlobalKeys.REQUEST_LOG_TEMPLATE.getKey(), DEFAULT_LOG_TEMPLATE));
-        for (Map.Entry<String, String> entry : colors.entrySet()) {
-            logTemplate = logTemplate.replace(entry.getKey(), entry.getValue());
-        }
+        final String logTemplate = String.valueOf(attributes.getOrDefault(GlobalKeys.REQUEST_LOG_TEMPLATE.getKey(), DEFAULT_LOG_TEMPLATE));
         final String environment = String.valueOf(attributes.getOrDefault(GlobalKeys.REQUEST_ENVIRONMENT.getKey(), GlobalKeys.ENVIRONMENT_NOT_SET.getKey()));
         final Object tenantId = attributes.getOrDefault(EnvironmentKeys.REQUEST_TENANT_ID.getKey(), EnvironmentKeys.TENANT_NOT_SET.getKey());
         final String currentLogLevelValue = String.valueOf(attributes.getOrDefault(GlobalKeys.REQUEST_LOG_LEVEL.getKey(), GlobalKeys.DEFAULT_LOG_LEVEL.getKey()));
-        final System.Logger.Level currentLogLevel = Stream.of(System.Logger.Level.values()).filter(level -> level.getName().equalsIgnoreCase(currentLogLevelValue)).findFirst().orElse(System.Logger.Level.INFO);
-        return new DefaultLogger(currentLogLevel, environment, tenantId, logTemplate);
+        final LoggerKey loggerKey = new LoggerKey(logTemplate, environment, tenantId, currentLogLevelValue);
+        final Logger logger = loggers.get(loggerKey);
+        if (nonNull(logger)) {
+            return logger;
+        }
+        if (loggers.size() >= MAX_LOGGERS) {
+            loggers.clear();
+        }
+        return loggers.computeIfAbsent(loggerKey, DefaultLogger::create);
+    }
+
+    private static Logger create(final LoggerKey loggerKey) {
+        String logTemplate = loggerKey.logTemplate();
+        for (Map.Entry<String, String> entry : colors.entrySet()) {
+            logTemplate = logTemplate.replace(entry.getKey(), entry.getValue());
+        }
+        final System.Logger.Level currentLogLevel = levels.getOrDefault(loggerKey.logLevel().toLowerCase(Locale.ROOT), System.Logger.Level.INFO);
+        return new DefaultLogger(currentLogLevel, loggerKey.environment(), loggerKey.tenantId(), logTemplate);
     }
 
     /**
@@ -95,16 +132,31 @@ public class DefaultLogger implements Logger {
         }
     }
 
-    private void log(String logLevel, String message, Object[] arguments) {
-        final StackTraceElement element = Thread.currentThread().getStackTrace()[3];
-        final String classMethodLine = element.getClassName() + "." + element.getMethodName() + "():" + element.getLineNumber();
-        final String classMethodLineSub = classMethodLine.length() > 50 ? classMethodLine.substring(classMethodLine.length() - 50) : classMethodLine;
+    static LogWriter getLogWriter() {
+        return logWriter;
+    }
 
-        final String thread = String.format("%s-%s", Thread.currentThread().threadId(), Thread.currentThread().getName());
+    private void log(String logLevel, String message, Object[] arguments) {
+        final String classMethodLineSub = CAPTURE_CALLER ? getCaller() : "";
+        final Thread currentThread = Thread.currentThread();
+        final String thread = currentThread.threadId() + "-" + currentThread.getName();
         final String logMessage = String.format(message, arguments);
         final String date = DATETIME_FORMATTER.format(LocalDateTime.now());
         logWriter.log(logLevel, String.format(logTemplate,
                 date, logLevel, environment, tenantId, thread, classMethodLineSub, logMessage));
     }
 
+    private static String getCaller() {
+        // skips this method, log and the info, debug or error method
+        return STACK_WALKER.walk(frames -> frames.skip(3).findFirst())
+                .map(frame -> {
+                    final String classMethodLine = frame.getClassName() + "." + frame.getMethodName() + "():" + frame.getLineNumber();
+                    return classMethodLine.length() > 50 ? classMethodLine.substring(classMethodLine.length() - 50) : classMethodLine;
+                })
+                .orElse("");
+    }
+
+    private record LoggerKey(String logTemplate, String environment, Object tenantId, String logLevel) {
+    }
+
 }
@@ -1,7 +1,16 @@
 package io.archura.platform.internal.logging;
 
 
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.util.Objects.isNull;
 
 /**
  * A log writer interface that simply writes the already prepared log messages.
@@ -14,15 +23,56 @@ public interface LogWriter {
      */
     PrintStream stream = System.out;
 
+    /**
+     * System property to select the log writer, "stream" (default) or "async".
+     */
+    String WRITER_PROPERTY = "archura.log.writer";
+    /**
+     * System property for the file the async log writer appends to, system output is used if not set.
+     */
+    String FILE_PROPERTY = "archura.log.file";
+    /**
+     * System property for the number of messages the async log writer can hold.
+     */
+    String BUFFER_SIZE_PROPERTY = "archura.log.buffer-size";
+    /**
+     * System property for the async log writer overflow policy, "drop" (default), "block" or "sample".
+     */
+    String OVERFLOW_POLICY_PROPERTY = "archura.log.overflow-policy";
+    /**
+     * System property for the ratio of messages kept by the "sample" overflow policy.
+     */
+    String SAMPLE_RATE_PROPERTY = "archura.log.sample-rate";
+
     /**
      * Creates a log writer.
      *
      * @return a LogWriter implementation.
      */
     static LogWriter create() {
+        if ("async".equalsIgnoreCase(System.getProperty(WRITER_PROPERTY))) {
+            return new AsyncLogWriter(
+                    openChannel(System.getProperty(FILE_PROPERTY)),
+                    Integer.getInteger(BUFFER_SIZE_PROPERTY, 65_536),
+                    64 * 1024,
+                    OverflowPolicy.of(System.getProperty(OVERFLOW_POLICY_PROPERTY, OverflowPolicy.DROP.name())),
+                    Integer.getInteger(SAMPLE_RATE_PROPERTY, 10)
+            );
+        }
         return new StreamLogWriter(stream);
     }
 
+    private static FileChannel openChannel(final String file) {
+        if (isNull(file)) {
+            return new FileOutputStream(FileDescriptor.out).getChannel();
+        }
+        try {
+            return FileChannel.open(Path.of(file), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Writes the log message using underlying stream.
      *
@@ -19,4 +19,13 @@ public interface LoggerFactory {
         return DefaultLogger.create(attributes);
     }
 
+    /**
+     * Returns the log writer the loggers write to.
+     *
+     * @return the LogWriter implementation in use.
+     */
+    static LogWriter getLogWriter() {
+        return DefaultLogger.getLogWriter();
+    }
+
 }
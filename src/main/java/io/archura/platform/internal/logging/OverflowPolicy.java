@@ -0,0 +1,35 @@
+package io.archura.platform.internal.logging;
+
+import java.util.Locale;
+
+/**
+ * Decides what happens to a log message when the log buffer can not keep up with the writers.
+ */
+public enum OverflowPolicy {
+    /**
+     * Drops the message when the buffer is full.
+     */
+    DROP,
+    /**
+     * Waits for free space in the buffer.
+     */
+    BLOCK,
+    /**
+     * Keeps only a sample of the messages once the buffer is mostly full, drops the message when the buffer is full.
+     */
+    SAMPLE;
+
+    /**
+     * Returns the policy with the given name, or DROP if the name does not match a policy.
+     *
+     * @param name policy name, case-insensitive.
+     * @return overflow policy.
+     */
+    public static OverflowPolicy of(final String name) {
+        try {
+            return OverflowPolicy.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (RuntimeException e) {
+            return DROP;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package io.archura.platform.internal.pipeline;
+
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Compiled pre and post filters of a single configuration level; global, environment or tenant.
+ *
+ * @param scope       configuration level name used for logging.
+ * @param preFilters  pre filters in execution order.
+ * @param postFilters post filters in execution order.
+ */
+public record ChainSegment(
+        String scope,
+        List<FunctionHandle<UnaryOperator<ServerRequest>>> preFilters,
+        List<FunctionHandle<BiFunction<ServerRequest, ServerResponse, ServerResponse>>> postFilters
+) {
+
+    public static ChainSegment empty(final String scope) {
+        return new ChainSegment(scope, Collections.emptyList(), Collections.emptyList());
+    }
+
+}
@@ -0,0 +1,49 @@
+package io.archura.platform.internal.pipeline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the live class loaders of a reloadable filter or function and the Metaspace used while loading them.
+ * The Metaspace value is the growth measured while a generation is loaded, an estimate rather than an exact size.
+ */
+public class ClassLoaderMetrics {
+
+    private final AtomicInteger classLoaders = new AtomicInteger();
+    private final AtomicLong metaspace = new AtomicLong();
+    private final Counter swaps;
+
+    public ClassLoaderMetrics(final MeterRegistry meterRegistry, final String className) {
+        Gauge.builder("archura.function.classloaders", classLoaders, AtomicInteger::get)
+                .tag("function", className)
+                .strongReference(true)
+                .register(meterRegistry);
+        Gauge.builder("archura.function.classloaders.metaspace", metaspace, AtomicLong::get)
+                .tag("function", className)
+                .baseUnit("bytes")
+                .strongReference(true)
+                .register(meterRegistry);
+        this.swaps = Counter.builder("archura.function.classloaders.swaps")
+                .tag("function", className)
+                .register(meterRegistry);
+    }
+
+    public void loaded(final long metaspaceBytes) {
+        classLoaders.incrementAndGet();
+        metaspace.addAndGet(metaspaceBytes);
+    }
+
+    public void unloaded(final long metaspaceBytes) {
+        classLoaders.decrementAndGet();
+        metaspace.addAndGet(-metaspaceBytes);
+    }
+
+    public void swapped() {
+        swaps.increment();
+    }
+
+}
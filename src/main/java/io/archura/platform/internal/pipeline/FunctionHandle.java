@@ -0,0 +1,40 @@
+package io.archura.platform.internal.pipeline;
+
+/**
+ * A compiled reference to a filter or function of a pipeline.
+ *
+ * @param <T> filter or function type.
+ */
+public interface FunctionHandle<T> extends AutoCloseable {
+
+    /**
+     * Returns the simple class name of the filter or function, used for logging.
+     *
+     * @return name of the filter or function.
+     */
+    String getName();
+
+    /**
+     * Returns an instance that is ready to be executed.
+     *
+     * @return configured filter or function instance.
+     */
+    T acquire();
+
+    /**
+     * Hands back an instance that was returned by {@link #acquire()} once the execution is over.
+     *
+     * @param instance filter or function instance.
+     */
+    default void release(T instance) {
+    }
+
+    /**
+     * Releases the resources of the handle once it is dropped with its pipeline,
+     * executions that already acquired an instance finish first.
+     */
+    @Override
+    default void close() {
+    }
+
+}
@@ -0,0 +1,43 @@
+package io.archura.platform.internal.pipeline;
+
+import io.archura.platform.internal.configuration.FunctionLifecycle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Counts how many filter or function instances are created and how many times an existing instance is reused.
+ */
+public class FunctionInstanceMetrics {
+
+    private final Counter created;
+    private final Counter reused;
+    private final Counter waited;
+
+    public FunctionInstanceMetrics(final MeterRegistry meterRegistry, final String className, final FunctionLifecycle lifecycle) {
+        this.created = Counter.builder("archura.function.instances.created")
+                .tag("function", className)
+                .tag("lifecycle", lifecycle.getKey())
+                .register(meterRegistry);
+        this.reused = Counter.builder("archura.function.instances.reused")
+                .tag("function", className)
+                .tag("lifecycle", lifecycle.getKey())
+                .register(meterRegistry);
+        this.waited = Counter.builder("archura.function.instances.waited")
+                .tag("function", className)
+                .tag("lifecycle", lifecycle.getKey())
+                .register(meterRegistry);
+    }
+
+    public void created() {
+        created.increment();
+    }
+
+    public void reused() {
+        reused.increment();
+    }
+
+    public void waited() {
+        waited.increment();
+    }
+
+}
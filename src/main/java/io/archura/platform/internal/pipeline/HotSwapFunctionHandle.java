@@ -0,0 +1,216 @@
+package io.archura.platform.internal.pipeline;
+
+import io.archura.platform.api.exception.ResourceLoadException;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Serves instances from the current class loader generation of a filter or function configured with reload.
+ * <p>
+ * {@link #refresh()} checks the jar with the code repository, loads a new version into a new class loader and swaps it in,
+ * the previous class loader is closed once the executions that acquired an instance from it are over.
+ * {@link #close()} retires the current class loader the same way when the handle is dropped with its pipeline.
+ *
+ * @param <T> filter or function type.
+ */
+public class HotSwapFunctionHandle<T> implements FunctionHandle<T> {
+
+    private static final MemoryPoolMXBean METASPACE = ManagementFactory.getMemoryPoolMXBeans()
+            .stream()
+            .filter(memoryPool -> "Metaspace".equals(memoryPool.getName()))
+            .findFirst()
+            .orElse(null);
+
+    private final String name;
+    private final Supplier<URL> jarLocator;
+    private final Function<ClassLoader, FunctionHandle<T>> handleFactory;
+    private final ClassLoaderMetrics metrics;
+    private final Map<InstanceKey, Lease<T>> leases = new ConcurrentHashMap<>();
+    private volatile Generation<T> current;
+    private volatile boolean closed;
+
+    /**
+     * Creates the handle and loads the first generation.
+     *
+     * @param className     filter or function class name.
+     * @param jarLocator    returns the local url of the latest jar, revalidated with the code repository.
+     * @param handleFactory creates the handle of a generation from its class loader.
+     * @param metrics       class loader metrics of the filter or function.
+     */
+    public HotSwapFunctionHandle(
+            final String className,
+            final Supplier<URL> jarLocator,
+            final Function<ClassLoader, FunctionHandle<T>> handleFactory,
+            final ClassLoaderMetrics metrics
+    ) {
+        this.name = className.substring(className.lastIndexOf('.') + 1);
+        this.jarLocator = jarLocator;
+        this.handleFactory = handleFactory;
+        this.metrics = metrics;
+        this.current = load(jarLocator.get());
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public T acquire() {
+        while (true) {
+            final Generation<T> generation = current;
+            generation.inFlight().incrementAndGet();
+            if (generation.retired().get() && !closed) {
+                leave(generation);
+                continue;
+            }
+            try {
+                final T instance = generation.handle().acquire();
+                leases.compute(new InstanceKey(instance), (key, lease) ->
+                        isNull(lease) ? new Lease<>(generation, 1) : new Lease<>(lease.generation(), lease.count() + 1));
+                return instance;
+            } catch (RuntimeException e) {
+                leave(generation);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Hands the instance back to the generation that served it, the generation is looked up by the lease
+     * recorded in {@link #acquire()} rather than by the class loader of the instance.
+     *
+     * @param instance filter or function instance.
+     */
+    @Override
+    public void release(final T instance) {
+        final InstanceKey key = new InstanceKey(instance);
+        final Lease<T> lease = leases.get(key);
+        if (isNull(lease)) {
+            return;
+        }
+        leases.computeIfPresent(key, (instanceKey, current) -> current.count() > 1 ? new Lease<>(current.generation(), current.count() - 1) : null);
+        lease.generation().handle().release(instance);
+        leave(lease.generation());
+    }
+
+    /**
+     * Swaps in a new generation if the jar has changed since the current generation was loaded.
+     */
+    public synchronized void refresh() {
+        if (closed) {
+            return;
+        }
+        final URL jarUrl = jarLocator.get();
+        final Generation<T> previous = current;
+        if (previous.jarUrl().equals(jarUrl)) {
+            return;
+        }
+        final Generation<T> next = load(jarUrl);
+        current = next;
+        previous.retired().set(true);
+        metrics.swapped();
+        closeIfDrained(previous);
+    }
+
+    /**
+     * Retires the current generation, its class loader is closed once the executions that acquired an instance from it are over.
+     * An execution that still holds the dropped pipeline is served by the retired generation.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        final Generation<T> generation = current;
+        generation.retired().set(true);
+        closeIfDrained(generation);
+    }
+
+    private Generation<T> load(final URL jarUrl) {
+        final long metaspaceBefore = getMetaspaceUsed();
+        final URLClassLoader classLoader = new URLClassLoader(new URL[]{jarUrl}, ClassLoader.getSystemClassLoader());
+        try {
+            final FunctionHandle<T> handle = handleFactory.apply(classLoader);
+            final long metaspace = Math.max(0, getMetaspaceUsed() - metaspaceBefore);
+            metrics.loaded(metaspace);
+            return new Generation<>(jarUrl, classLoader, handle, metaspace, new AtomicInteger(), new AtomicBoolean(), new AtomicBoolean());
+        } catch (RuntimeException e) {
+            close(classLoader);
+            throw e;
+        }
+    }
+
+    private void leave(final Generation<T> generation) {
+        if (generation.inFlight().decrementAndGet() == 0 && generation.retired().get()) {
+            closeIfDrained(generation);
+        }
+    }
+
+    private void closeIfDrained(final Generation<T> generation) {
+        if (generation.inFlight().get() == 0 && generation.closed().compareAndSet(false, true)) {
+            close(generation.classLoader());
+            metrics.unloaded(generation.metaspace());
+        }
+    }
+
+    private void close(final URLClassLoader classLoader) {
+        try {
+            classLoader.close();
+        } catch (IOException e) {
+            throw new ResourceLoadException(e);
+        }
+    }
+
+    private static long getMetaspaceUsed() {
+        return isNull(METASPACE) ? 0 : METASPACE.getUsage().getUsed();
+    }
+
+    /**
+     * Identity of an acquired instance, instances may override equals and hashCode.
+     */
+    private record InstanceKey(Object instance) {
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof InstanceKey key && key.instance() == instance;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(instance);
+        }
+
+    }
+
+    /**
+     * Generation that served an instance and the number of executions holding it, a singleton is held by many.
+     */
+    private record Lease<T>(Generation<T> generation, int count) {
+    }
+
+    private record Generation<T>(
+            URL jarUrl,
+            URLClassLoader classLoader,
+            FunctionHandle<T> handle,
+            long metaspace,
+            AtomicInteger inFlight,
+            AtomicBoolean retired,
+            AtomicBoolean closed
+    ) {
+    }
+
+}
@@ -0,0 +1,66 @@
+package io.archura.platform.internal.pipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Periodically refreshes the reloadable filters and functions in the background.
+ * Handles are held weakly, a handle dropped with its pipeline is no longer watched.
+ */
+public class HotSwapWatcher implements AutoCloseable {
+
+    private final Set<HotSwapFunctionHandle<?>> handles = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a watcher.
+     *
+     * @param intervalSeconds seconds between two checks, zero or less disables watching.
+     */
+    public HotSwapWatcher(final long intervalSeconds) {
+        if (intervalSeconds > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "archura-hot-swap-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.scheduler.scheduleWithFixedDelay(this::refresh, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    public void watch(final HotSwapFunctionHandle<?> handle) {
+        handles.add(handle);
+    }
+
+    @Override
+    public void close() {
+        if (nonNull(scheduler)) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void refresh() {
+        final List<HotSwapFunctionHandle<?>> snapshot;
+        synchronized (handles) {
+            snapshot = new ArrayList<>(handles);
+        }
+        for (HotSwapFunctionHandle<?> handle : snapshot) {
+            try {
+                handle.refresh();
+            } catch (RuntimeException e) {
+                // keep serving the current generation, the next check retries
+            }
+        }
+    }
+
+}
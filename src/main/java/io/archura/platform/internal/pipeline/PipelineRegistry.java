@@ -0,0 +1,378 @@
+package io.archura.platform.internal.pipeline;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.archura.platform.api.attribute.TenantKeys;
+import io.archura.platform.api.exception.FunctionIsNotAHandlerFunctionException;
+import io.archura.platform.api.exception.PostFilterIsNotABiFunctionException;
+import io.archura.platform.api.exception.PreFilterIsNotAUnaryOperatorException;
+import io.archura.platform.api.exception.ResourceLoadException;
+import io.archura.platform.api.type.Configurable;
+import io.archura.platform.internal.Assets;
+import io.archura.platform.internal.configuration.FunctionLifecycle;
+import io.archura.platform.internal.configuration.GlobalConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.function.HandlerFunction;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.lang.reflect.Constructor;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Compiles the filters and functions of the global configuration once and keeps them indexed
+ * by environment, tenant and route until the global configuration changes.
+ */
+@RequiredArgsConstructor
+public class PipelineRegistry {
+
+    public static final String GLOBAL_SCOPE = "global";
+    public static final String ENVIRONMENT_SCOPE = "environment";
+    public static final String TENANT_SCOPE = "tenant";
+    public static final String ROUTE_SCOPE = "route";
+
+    private final Assets assets;
+    private final MeterRegistry meterRegistry;
+    private final HotSwapWatcher hotSwapWatcher;
+    private final Map<String, ClassLoaderMetrics> classLoaderMetrics = new ConcurrentHashMap<>();
+    private final Map<String, ChainSegment> environmentSegments = new ConcurrentHashMap<>();
+    private final Map<TenantKey, ChainSegment> tenantSegments = new ConcurrentHashMap<>();
+    private final Map<RouteKey, RoutePipeline> routePipelines = new ConcurrentHashMap<>();
+    private volatile GlobalConfiguration globalConfiguration;
+    private volatile ChainSegment globalSegment;
+
+    public ChainSegment getGlobalSegment(final GlobalConfiguration globalConfiguration) {
+        checkConfiguration(globalConfiguration);
+        ChainSegment segment = globalSegment;
+        if (isNull(segment)) {
+            synchronized (this) {
+                segment = globalSegment;
+                if (isNull(segment)) {
+                    segment = compileGlobalSegment(globalConfiguration);
+                    globalSegment = segment;
+                }
+            }
+        }
+        return segment;
+    }
+
+    public ChainSegment getEnvironmentSegment(final GlobalConfiguration globalConfiguration, final String environmentName) {
+        checkConfiguration(globalConfiguration);
+        final ChainSegment segment = environmentSegments.get(environmentName);
+        if (nonNull(segment)) {
+            return segment;
+        }
+        // the configuration is read while the map bin is locked, so an invalidation in between drops what is compiled here
+        final ChainSegment compiled = environmentSegments.computeIfAbsent(environmentName, key -> {
+            final GlobalConfiguration.EnvironmentConfiguration environmentConfiguration = globalConfiguration.getEnvironments().get(environmentName);
+            return isNull(environmentConfiguration) ? null : compileEnvironmentSegment(globalConfiguration, environmentConfiguration, environmentName);
+        });
+        return isNull(compiled) ? ChainSegment.empty(ENVIRONMENT_SCOPE) : compiled;
+    }
+
+    public ChainSegment getTenantSegment(final GlobalConfiguration globalConfiguration, final String environmentName, final String tenantId) {
+        checkConfiguration(globalConfiguration);
+        final TenantKey tenantKey = new TenantKey(environmentName, tenantId);
+        final ChainSegment segment = tenantSegments.get(tenantKey);
+        if (nonNull(segment)) {
+            return segment;
+        }
+        final ChainSegment compiled = tenantSegments.computeIfAbsent(tenantKey, key -> {
+            final GlobalConfiguration.TenantConfiguration tenantConfiguration = findTenantConfiguration(globalConfiguration, environmentName, tenantId);
+            return isNull(tenantConfiguration) ? null : compileTenantSegment(globalConfiguration, tenantConfiguration, environmentName, tenantId);
+        });
+        return isNull(compiled) ? ChainSegment.empty(TENANT_SCOPE) : compiled;
+    }
+
+    public RoutePipeline getRoutePipeline(
+            final GlobalConfiguration globalConfiguration,
+            final String environmentName,
+            final String tenantId,
+            final String routeId
+    ) {
+        checkConfiguration(globalConfiguration);
+        final RouteKey routeKey = new RouteKey(environmentName, tenantId, routeId);
+        final RoutePipeline pipeline = routePipelines.get(routeKey);
+        if (nonNull(pipeline)) {
+            return pipeline;
+        }
+        final RoutePipeline compiled = routePipelines.computeIfAbsent(routeKey, key -> {
+            final GlobalConfiguration.TenantConfiguration tenantConfiguration = findTenantConfiguration(globalConfiguration, environmentName, tenantId);
+            return isNull(tenantConfiguration) ? null : compileRoutePipeline(globalConfiguration, tenantConfiguration, environmentName, tenantId, routeId);
+        });
+        return isNull(compiled) ? RoutePipeline.empty() : compiled;
+    }
+
+    /**
+     * Drops all compiled pipelines, they will be compiled again on the next request.
+     * The function handles of the dropped pipelines are closed.
+     */
+    public synchronized void invalidate() {
+        final ChainSegment segment = globalSegment;
+        globalSegment = null;
+        if (nonNull(segment)) {
+            close(segment);
+        }
+        environmentSegments.keySet().forEach(key -> close(environmentSegments.remove(key)));
+        tenantSegments.keySet().forEach(key -> close(tenantSegments.remove(key)));
+        routePipelines.keySet().forEach(key -> close(routePipelines.remove(key)));
+    }
+
+    /**
+     * Drops the compiled pipelines of the environment and its tenants and routes.
+     *
+     * @param environmentName environment name.
+     */
+    public void invalidate(final String environmentName) {
+        close(environmentSegments.remove(environmentName));
+        tenantSegments.keySet().stream()
+                .filter(key -> key.environmentName().equals(environmentName))
+                .forEach(key -> close(tenantSegments.remove(key)));
+        routePipelines.keySet().stream()
+                .filter(key -> key.environmentName().equals(environmentName))
+                .forEach(key -> close(routePipelines.remove(key)));
+    }
+
+    /**
+     * Drops the compiled pipelines of the tenant and its routes.
+     *
+     * @param environmentName environment name.
+     * @param tenantId        tenant id.
+     */
+    public void invalidate(final String environmentName, final String tenantId) {
+        close(tenantSegments.remove(new TenantKey(environmentName, tenantId)));
+        routePipelines.keySet().stream()
+                .filter(key -> key.environmentName().equals(environmentName) && key.tenantId().equals(tenantId))
+                .forEach(key -> close(routePipelines.remove(key)));
+    }
+
+    private void close(final ChainSegment segment) {
+        if (isNull(segment)) {
+            return;
+        }
+        segment.preFilters().forEach(FunctionHandle::close);
+        segment.postFilters().forEach(FunctionHandle::close);
+    }
+
+    private void close(final RoutePipeline pipeline) {
+        if (isNull(pipeline)) {
+            return;
+        }
+        close(pipeline.segment());
+        pipeline.function().ifPresent(FunctionHandle::close);
+    }
+
+    private void checkConfiguration(final GlobalConfiguration configuration) {
+        if (globalConfiguration != configuration) {
+            synchronized (this) {
+                if (globalConfiguration != configuration) {
+                    invalidate();
+                    globalConfiguration = configuration;
+                }
+            }
+        }
+    }
+
+    private GlobalConfiguration.TenantConfiguration findTenantConfiguration(
+            final GlobalConfiguration globalConfiguration,
+            final String environmentName,
+            final String tenantId
+    ) {
+        final GlobalConfiguration.EnvironmentConfiguration environmentConfiguration = globalConfiguration.getEnvironments().get(environmentName);
+        if (isNull(environmentConfiguration)) {
+            return null;
+        }
+        return environmentConfiguration.getTenants().get(tenantId);
+    }
+
+    private ChainSegment compileGlobalSegment(final GlobalConfiguration globalConfiguration) {
+        final String codeRepositoryUrl = globalConfiguration.getConfig().getCodeRepositoryUrl();
+        return compileSegment(GLOBAL_SCOPE, globalConfiguration.getPre(), globalConfiguration.getPost(), codeRepositoryUrl, "global");
+    }
+
+    private ChainSegment compileEnvironmentSegment(
+            final GlobalConfiguration globalConfiguration,
+            final GlobalConfiguration.EnvironmentConfiguration environmentConfiguration,
+            final String environmentName
+    ) {
+        final String codeRepositoryUrl = globalConfiguration.getConfig().getCodeRepositoryUrl();
+        final String query = String.format("environmentName=%s", environmentName);
+        return compileSegment(ENVIRONMENT_SCOPE, environmentConfiguration.getPre(), environmentConfiguration.getPost(), codeRepositoryUrl, query);
+    }
+
+    private ChainSegment compileTenantSegment(
+            final GlobalConfiguration globalConfiguration,
+            final GlobalConfiguration.TenantConfiguration tenantConfiguration,
+            final String environmentName,
+            final String tenantId
+    ) {
+        final String codeRepositoryUrl = globalConfiguration.getConfig().getCodeRepositoryUrl();
+        final String query = String.format("environmentName=%s&tenantId=%s", environmentName, tenantId);
+        return compileSegment(TENANT_SCOPE, tenantConfiguration.getPre(), tenantConfiguration.getPost(), codeRepositoryUrl, query);
+    }
+
+    private RoutePipeline compileRoutePipeline(
+            final GlobalConfiguration globalConfiguration,
+            final GlobalConfiguration.TenantConfiguration tenantConfiguration,
+            final String environmentName,
+            final String tenantId,
+            final String routeId
+    ) {
+        final String codeRepositoryUrl = globalConfiguration.getConfig().getCodeRepositoryUrl();
+        final String query = String.format("environmentName=%s&tenantId=%s", environmentName, tenantId);
+        final GlobalConfiguration.TenantConfiguration.RouteConfiguration routeConfiguration = tenantConfiguration.getRoutes().get(routeId);
+        final ChainSegment segment = isNull(routeConfiguration)
+                ? ChainSegment.empty(ROUTE_SCOPE)
+                : compileSegment(ROUTE_SCOPE, routeConfiguration.getPre(), routeConfiguration.getPost(), codeRepositoryUrl, query);
+        final Optional<FunctionHandle<HandlerFunction<ServerResponse>>> function = Optional.ofNullable(routeConfiguration)
+                .map(GlobalConfiguration.TenantConfiguration.RouteConfiguration::getFunction)
+                .or(() -> Optional.ofNullable(tenantConfiguration.getRoutes().get(TenantKeys.CATCH_ALL_ROUTE_KEY.getKey()))
+                        .map(GlobalConfiguration.TenantConfiguration.RouteConfiguration::getFunction))
+                .map(functionConfiguration -> compileFunction(codeRepositoryUrl, functionConfiguration, query));
+        return new RoutePipeline(segment, function);
+    }
+
+    private ChainSegment compileSegment(
+            final String scope,
+            final List<GlobalConfiguration.PreFilterConfiguration> preFilterConfigurations,
+            final List<GlobalConfiguration.PostFilterConfiguration> postFilterConfigurations,
+            final String codeRepositoryUrl,
+            final String query
+    ) {
+        final List<FunctionHandle<UnaryOperator<ServerRequest>>> preFilters = preFilterConfigurations
+                .stream()
+                .map(preFilterConfiguration -> compilePreFilter(codeRepositoryUrl, preFilterConfiguration, query))
+                .toList();
+        final List<FunctionHandle<BiFunction<ServerRequest, ServerResponse, ServerResponse>>> postFilters = postFilterConfigurations
+                .stream()
+                .map(postFilterConfiguration -> compilePostFilter(codeRepositoryUrl, postFilterConfiguration, query))
+                .toList();
+        return new ChainSegment(scope, preFilters, postFilters);
+    }
+
+    private FunctionHandle<UnaryOperator<ServerRequest>> compilePreFilter(
+            final String codeServerURL,
+            final GlobalConfiguration.PreFilterConfiguration configuration,
+            final String query
+    ) {
+        final FunctionDefinition definition = new FunctionDefinition(configuration.getName(), configuration.getVersion(), configuration.isReload(),
+                configuration.getLifecycle(), configuration.getPoolSize(), configuration.getConfig());
+        return compile(codeServerURL, definition, query, UnaryOperator.class,
+                resourceUrl -> new PreFilterIsNotAUnaryOperatorException(String.format("Resource is not a UnaryOperator, url: %s", resourceUrl)));
+    }
+
+    private FunctionHandle<BiFunction<ServerRequest, ServerResponse, ServerResponse>> compilePostFilter(
+            final String codeServerURL,
+            final GlobalConfiguration.PostFilterConfiguration configuration,
+            final String query
+    ) {
+        final FunctionDefinition definition = new FunctionDefinition(configuration.getName(), configuration.getVersion(), configuration.isReload(),
+                configuration.getLifecycle(), configuration.getPoolSize(), configuration.getConfig());
+        return compile(codeServerURL, definition, query, BiFunction.class,
+                resourceUrl -> new PostFilterIsNotABiFunctionException(String.format("Resource is not a BiFunction, url: %s", resourceUrl)));
+    }
+
+    private FunctionHandle<HandlerFunction<ServerResponse>> compileFunction(
+            final String codeServerURL,
+            final GlobalConfiguration.TenantConfiguration.RouteConfiguration.FunctionConfiguration configuration,
+            final String query
+    ) {
+        final FunctionDefinition definition = new FunctionDefinition(configuration.getName(), configuration.getVersion(), configuration.isReload(),
+                configuration.getLifecycle(), configuration.getPoolSize(), configuration.getConfig());
+        return compile(codeServerURL, definition, query, HandlerFunction.class,
+                resourceUrl -> new FunctionIsNotAHandlerFunctionException(String.format("Resource is not a HandlerFunction, url: %s", resourceUrl)));
+    }
+
+    private <T> FunctionHandle<T> compile(
+            final String codeServerURL,
+            final FunctionDefinition definition,
+            final String query,
+            final Class<?> type,
+            final Function<String, RuntimeException> typeMismatch
+    ) {
+        final String name = definition.name();
+        final String resourceUrl = String.format("%s/%s-%s.jar", codeServerURL, name, definition.version());
+        final String resourceKey = String.format("%s?%s", resourceUrl, query);
+        if (definition.reload()) {
+            final ClassLoaderMetrics metrics = classLoaderMetrics.computeIfAbsent(name, key -> new ClassLoaderMetrics(meterRegistry, key));
+            final HotSwapFunctionHandle<T> handle = new HotSwapFunctionHandle<>(name,
+                    () -> assets.getJarUrl(resourceUrl, resourceKey, true),
+                    classLoader -> {
+                        try {
+                            return createHandle(classLoader.loadClass(name), resourceUrl, definition, type, typeMismatch);
+                        } catch (ClassNotFoundException e) {
+                            throw new ResourceLoadException(e);
+                        }
+                    }, metrics);
+            hotSwapWatcher.watch(handle);
+            return handle;
+        }
+        return createHandle(assets.loadClass(resourceUrl, resourceKey, name), resourceUrl, definition, type, typeMismatch);
+    }
+
+    private <T> FunctionHandle<T> createHandle(
+            final Class<?> remoteClass,
+            final String resourceUrl,
+            final FunctionDefinition definition,
+            final Class<?> type,
+            final Function<String, RuntimeException> typeMismatch
+    ) {
+        final String name = definition.name();
+        try {
+            if (!type.isAssignableFrom(remoteClass)) {
+                throw typeMismatch.apply(resourceUrl);
+            }
+            final Constructor<?> constructor = remoteClass.getDeclaredConstructor();
+            final Map<String, Object> config = Configurable.class.isAssignableFrom(remoteClass)
+                    ? assets.toConfigurationMap(definition.config())
+                    : null;
+            final Supplier<T> factory = () -> {
+                try {
+                    @SuppressWarnings("unchecked") final T instance = (T) assets.newInstance(constructor, config);
+                    return instance;
+                } catch (ReflectiveOperationException e) {
+                    throw new ResourceLoadException(e);
+                }
+            };
+            final FunctionLifecycle lifecycle = definition.lifecycle();
+            final FunctionInstanceMetrics metrics = new FunctionInstanceMetrics(meterRegistry, name, lifecycle);
+            return switch (lifecycle) {
+                case SINGLETON -> new SingletonFunctionHandle<>(factory.get(), metrics);
+                case POOLED -> new PooledFunctionHandle<>(name, factory, definition.poolSize(), metrics);
+                case PROTOTYPE -> new PrototypeFunctionHandle<>(name, factory, metrics);
+            };
+        } catch (Exception e) {
+            throw new ResourceLoadException(e);
+        }
+    }
+
+    private record FunctionDefinition(
+            String name,
+            String version,
+            boolean reload,
+            FunctionLifecycle lifecycle,
+            int poolSize,
+            JsonNode config
+    ) {
+        FunctionDefinition {
+            lifecycle = isNull(lifecycle) ? FunctionLifecycle.PROTOTYPE : lifecycle;
+        }
+    }
+
+    private record TenantKey(String environmentName, String tenantId) {
+    }
+
+    private record RouteKey(String environmentName, String tenantId, String routeId) {
+    }
+
+}
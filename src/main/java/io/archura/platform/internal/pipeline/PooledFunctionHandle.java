@@ -0,0 +1,72 @@
+package io.archura.platform.internal.pipeline;
+
+import io.archura.platform.api.exception.ResourceLoadException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Keeps a bounded pool of configured instances for filters and functions that are not thread-safe.
+ * Instances are created on demand up to the pool size, after that callers wait for a released instance.
+ *
+ * @param <T> filter or function type.
+ */
+public class PooledFunctionHandle<T> implements FunctionHandle<T> {
+
+    private final String name;
+    private final Supplier<T> factory;
+    private final FunctionInstanceMetrics metrics;
+    private final BlockingQueue<T> idleInstances;
+    private final Semaphore permits;
+
+    public PooledFunctionHandle(final String className, final Supplier<T> factory, final int poolSize, final FunctionInstanceMetrics metrics) {
+        final int size = Math.max(1, poolSize);
+        this.name = className.substring(className.lastIndexOf('.') + 1);
+        this.factory = factory;
+        this.metrics = metrics;
+        this.idleInstances = new ArrayBlockingQueue<>(size);
+        this.permits = new Semaphore(size);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public T acquire() {
+        if (!permits.tryAcquire()) {
+            metrics.waited();
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResourceLoadException(e);
+            }
+        }
+        final T idleInstance = idleInstances.poll();
+        if (isNull(idleInstance)) {
+            try {
+                final T instance = factory.get();
+                metrics.created();
+                return instance;
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+        metrics.reused();
+        return idleInstance;
+    }
+
+    @Override
+    public void release(final T instance) {
+        idleInstances.offer(instance);
+        permits.release();
+    }
+
+}
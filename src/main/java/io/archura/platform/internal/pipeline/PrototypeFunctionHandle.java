@@ -0,0 +1,34 @@
+package io.archura.platform.internal.pipeline;
+
+import java.util.function.Supplier;
+
+/**
+ * Creates a new configured instance on every acquisition, for filters and functions that keep per request state.
+ *
+ * @param <T> filter or function type.
+ */
+public class PrototypeFunctionHandle<T> implements FunctionHandle<T> {
+
+    private final String name;
+    private final Supplier<T> factory;
+    private final FunctionInstanceMetrics metrics;
+
+    public PrototypeFunctionHandle(final String className, final Supplier<T> factory, final FunctionInstanceMetrics metrics) {
+        this.name = className.substring(className.lastIndexOf('.') + 1);
+        this.factory = factory;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public T acquire() {
+        final T instance = factory.get();
+        metrics.created();
+        return instance;
+    }
+
+}
@@ -0,0 +1,23 @@
+package io.archura.platform.internal.pipeline;
+
+import org.springframework.web.servlet.function.HandlerFunction;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.util.Optional;
+
+/**
+ * Compiled route level filters and the tenant function of an environment, tenant and route.
+ *
+ * @param segment  route pre and post filters.
+ * @param function tenant function of the route, or of the catch-all route if the route has none.
+ */
+public record RoutePipeline(
+        ChainSegment segment,
+        Optional<FunctionHandle<HandlerFunction<ServerResponse>>> function
+) {
+
+    public static RoutePipeline empty() {
+        return new RoutePipeline(ChainSegment.empty(PipelineRegistry.ROUTE_SCOPE), Optional.empty());
+    }
+
+}
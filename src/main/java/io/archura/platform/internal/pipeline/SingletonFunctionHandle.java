@@ -0,0 +1,32 @@
+package io.archura.platform.internal.pipeline;
+
+/**
+ * Holds a single configured instance that is shared by all requests.
+ *
+ * @param <T> filter or function type.
+ */
+public class SingletonFunctionHandle<T> implements FunctionHandle<T> {
+
+    private final String name;
+    private final T instance;
+    private final FunctionInstanceMetrics metrics;
+
+    public SingletonFunctionHandle(final T instance, final FunctionInstanceMetrics metrics) {
+        this.name = instance.getClass().getSimpleName();
+        this.instance = instance;
+        this.metrics = metrics;
+        metrics.created();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public T acquire() {
+        metrics.reused();
+        return instance;
+    }
+
+}
@@ -0,0 +1,139 @@
+package io.archura.platform.internal.registry;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * A concurrent registry of resources with single-flight creation.
+ * Lookups of existing resources are lock-free, the first caller of a missing key creates the resource
+ * while concurrent callers of the same key wait for that creation instead of creating their own.
+ *
+ * @param <K> key type.
+ * @param <V> resource type.
+ */
+public class ResourceRegistry<K, V> implements MeterBinder {
+
+    private final String name;
+    private final Map<K, CompletableFuture<V>> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ResourceRegistry(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the resource of the key, creates it with the factory if it does not exist.
+     * If the factory fails, the failure is thrown to all waiting callers and the key is left empty.
+     *
+     * @param key     resource key.
+     * @param factory creates the resource for the key.
+     * @return resource of the key.
+     */
+    public V get(final K key, final Function<K, V> factory) {
+        final CompletableFuture<V> existing = entries.get(key);
+        if (nonNull(existing)) {
+            hits.increment();
+            return join(existing);
+        }
+        final CompletableFuture<V> created = new CompletableFuture<>();
+        final CompletableFuture<V> raced = entries.putIfAbsent(key, created);
+        if (nonNull(raced)) {
+            hits.increment();
+            return join(raced);
+        }
+        misses.increment();
+        try {
+            final V value = factory.apply(key);
+            created.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the resource of the key if it is already created.
+     *
+     * @param key resource key.
+     * @return resource of the key or empty.
+     */
+    public Optional<V> find(final K key) {
+        final CompletableFuture<V> existing = entries.get(key);
+        if (isNull(existing) || !existing.isDone() || existing.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(existing.join());
+    }
+
+    public void put(final K key, final V value) {
+        entries.put(key, CompletableFuture.completedFuture(value));
+    }
+
+    public Optional<V> remove(final K key) {
+        final CompletableFuture<V> removed = entries.remove(key);
+        if (isNull(removed) || !removed.isDone() || removed.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(removed.join());
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry meterRegistry) {
+        Gauge.builder("archura.registry.size", entries, Map::size)
+                .tag("registry", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("archura.registry.hits", hits, LongAdder::sum)
+                .tag("registry", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("archura.registry.misses", misses, LongAdder::sum)
+                .tag("registry", name)
+                .register(meterRegistry);
+    }
+
+    private V join(final CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package io.archura.platform.internal.schedule;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Shared store of the nodes coordinating the scheduled functions.
+ */
+public interface CoordinationStore {
+
+    /**
+     * Acquires a lease if no other owner holds it.
+     *
+     * @param key   lease key.
+     * @param owner owner of the lease.
+     * @param ttl   time after which the lease expires.
+     * @return true if the lease was acquired.
+     */
+    boolean acquire(String key, String owner, Duration ttl);
+
+    /**
+     * Adds or refreshes a member of a group, the member expires unless refreshed within the ttl.
+     *
+     * @param group  group key.
+     * @param member member of the group.
+     * @param ttl    time after which the member expires.
+     */
+    void join(String group, String member, Duration ttl);
+
+    /**
+     * Returns the live members of a group.
+     *
+     * @param group group key.
+     * @return live members ordered by name.
+     */
+    List<String> members(String group);
+
+    /**
+     * Removes a member from a group.
+     *
+     * @param group  group key.
+     * @param member member of the group.
+     */
+    void leave(String group, String member);
+
+}
@@ -0,0 +1,251 @@
+package io.archura.platform.internal.schedule;
+
+import io.archura.platform.internal.concurrent.TimerWheel;
+import io.archura.platform.internal.configuration.GlobalConfiguration;
+import io.archura.platform.internal.configuration.OverlapPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Runs the scheduled functions of all tenants from a single timer wheel.
+ * <ul>
+ *     <li>A scheduled function is a lightweight entry holding its next firing on the wheel,
+ *     a firing runs the function on a virtual thread and schedules the following firing.</li>
+ *     <li>Each tenant may run a limited number of functions at the same time, firings above the limit are skipped.</li>
+ *     <li>A firing while the previous run is still going is skipped, or with the queue overlap policy runs once
+ *     the previous run has finished, queued firings of the same function are coalesced into one run.</li>
+ *     <li>Firings that fell behind by a whole period are counted as missed and the schedule continues from now.</li>
+ *     <li>Before a run the firing is claimed from the {@link ScheduleCoordinator}, a firing claimed by another node
+ *     of the cluster is not run on this node.</li>
+ * </ul>
+ */
+public class CronScheduler implements AutoCloseable {
+
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executorService;
+    private final ScheduleCoordinator scheduleCoordinator;
+    private final Set<ScheduledFunction> functions = ConcurrentHashMap.newKeySet();
+    private final Map<String, Semaphore> tenantPermits = new ConcurrentHashMap<>();
+    private volatile TimerWheel timerWheel;
+    private int maxConcurrentPerTenant;
+    private Timer lateness;
+    private Counter missed;
+    private Counter overlapSkipped;
+    private Counter limitSkipped;
+    private Counter failures;
+
+    public CronScheduler(
+            final MeterRegistry meterRegistry,
+            final ExecutorService executorService,
+            final ScheduleCoordinator scheduleCoordinator
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.executorService = executorService;
+        this.scheduleCoordinator = scheduleCoordinator;
+    }
+
+    /**
+     * Starts the timer wheel, functions scheduled before are dropped.
+     *
+     * @param configuration scheduler configuration.
+     */
+    public synchronized void start(final GlobalConfiguration.SchedulerConfiguration configuration) {
+        close();
+        tenantPermits.clear();
+        this.maxConcurrentPerTenant = Math.max(1, configuration.getMaxConcurrentPerTenant());
+        this.lateness = Timer.builder("archura.scheduler.lateness").register(meterRegistry);
+        this.missed = Counter.builder("archura.scheduler.missed").register(meterRegistry);
+        this.overlapSkipped = Counter.builder("archura.scheduler.skipped").tag("reason", "overlap").register(meterRegistry);
+        this.limitSkipped = Counter.builder("archura.scheduler.skipped").tag("reason", "tenant-limit").register(meterRegistry);
+        this.failures = Counter.builder("archura.scheduler.failures").register(meterRegistry);
+        Gauge.builder("archura.scheduler.functions", functions, Set::size).register(meterRegistry);
+        this.timerWheel = new TimerWheel("archura-cron-scheduler", configuration.getTickMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedules a function.
+     *
+     * @param tenantKey   environment and tenant key of the function.
+     * @param functionKey name and version of the function, identifies its firings across the cluster.
+     * @param cron        cron expression of the firings.
+     * @param zone        time zone of the cron expression.
+     * @param overlap     policy of firings while the previous run is still going.
+     * @param task        function run.
+     * @throws IllegalStateException if the scheduler is not started.
+     */
+    public void schedule(
+            final String tenantKey,
+            final String functionKey,
+            final CronExpression cron,
+            final ZoneId zone,
+            final OverlapPolicy overlap,
+            final Runnable task
+    ) {
+        final TimerWheel wheel = timerWheel;
+        if (isNull(wheel)) {
+            throw new IllegalStateException("Cron scheduler is not started");
+        }
+        final ScheduledFunction function = new ScheduledFunction(wheel, tenantKey, functionKey, cron, zone, overlap, task);
+        functions.add(function);
+        function.scheduleAfter(ZonedDateTime.now(zone));
+    }
+
+    @Override
+    public synchronized void close() {
+        functions.forEach(ScheduledFunction::cancel);
+        functions.clear();
+        if (nonNull(timerWheel)) {
+            timerWheel.close();
+            timerWheel = null;
+        }
+    }
+
+    private final class ScheduledFunction {
+
+        private final TimerWheel wheel;
+        private final String tenantKey;
+        private final String functionKey;
+        private final CronExpression cron;
+        private final ZoneId zone;
+        private final OverlapPolicy overlap;
+        private final Runnable task;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private final AtomicReference<ZonedDateTime> queued = new AtomicReference<>();
+        private volatile TimerWheel.Timeout timeout;
+        private volatile ZonedDateTime fireTime;
+        private volatile boolean cancelled;
+
+        private ScheduledFunction(
+                final TimerWheel wheel,
+                final String tenantKey,
+                final String functionKey,
+                final CronExpression cron,
+                final ZoneId zone,
+                final OverlapPolicy overlap,
+                final Runnable task
+        ) {
+            this.wheel = wheel;
+            this.tenantKey = tenantKey;
+            this.functionKey = functionKey;
+            this.cron = cron;
+            this.zone = zone;
+            this.overlap = overlap;
+            this.task = task;
+        }
+
+        private void scheduleAfter(final ZonedDateTime after) {
+            final ZonedDateTime next = cron.next(after);
+            if (cancelled || isNull(next)) {
+                functions.remove(this);
+                return;
+            }
+            fireTime = next;
+            final long delayNanos = Duration.between(ZonedDateTime.now(zone), next).toNanos();
+            timeout = wheel.schedule(this::fire, delayNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private void fire() {
+            final ZonedDateTime scheduled = fireTime;
+            final ZonedDateTime now = ZonedDateTime.now(zone);
+            final Duration late = Duration.between(scheduled, now);
+            lateness.record(late.isNegative() ? Duration.ZERO : late);
+            final ZonedDateTime following = cron.next(scheduled);
+            if (nonNull(following) && !following.isAfter(now)) {
+                missed.increment();
+                scheduleAfter(now);
+            } else {
+                scheduleAfter(scheduled);
+            }
+            trigger(scheduled);
+        }
+
+        private void trigger(final ZonedDateTime scheduled) {
+            if (cancelled) {
+                return;
+            }
+            if (!running.compareAndSet(false, true)) {
+                if (OverlapPolicy.QUEUE == overlap) {
+                    queued.set(scheduled);
+                    if (!running.get()) {
+                        // the run finished before the firing was queued and did not see it, take it over
+                        triggerQueued();
+                    }
+                } else {
+                    overlapSkipped.increment();
+                }
+                return;
+            }
+            final Semaphore permits = tenantPermits.computeIfAbsent(tenantKey, key -> new Semaphore(maxConcurrentPerTenant));
+            if (!permits.tryAcquire()) {
+                limitSkipped.increment();
+                finish();
+                return;
+            }
+            try {
+                executorService.execute(() -> run(permits, scheduled));
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                finish();
+            }
+        }
+
+        private void run(final Semaphore permits, final ZonedDateTime scheduled) {
+            try {
+                if (scheduleCoordinator.claim(tenantKey, functionKey, scheduled.toInstant().toEpochMilli())) {
+                    task.run();
+                }
+            } catch (RuntimeException e) {
+                failures.increment();
+            } finally {
+                permits.release();
+                finish();
+            }
+        }
+
+        /**
+         * Clears the running flag before the queue is drained, a firing queued concurrently is either drained here
+         * or sees the cleared flag and triggers itself.
+         */
+        private void finish() {
+            running.set(false);
+            triggerQueued();
+        }
+
+        private void triggerQueued() {
+            final ZonedDateTime next = queued.getAndSet(null);
+            if (nonNull(next)) {
+                trigger(next);
+            }
+        }
+
+        private void cancel() {
+            cancelled = true;
+            functions.remove(this);
+            final TimerWheel.Timeout current = timeout;
+            if (nonNull(current)) {
+                current.cancel();
+            }
+        }
+
+    }
+
+}
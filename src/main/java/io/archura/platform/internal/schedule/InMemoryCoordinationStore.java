@@ -0,0 +1,68 @@
+package io.archura.platform.internal.schedule;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Coordination store in the memory of a single node, stands in for Redis when all coordinating schedulers
+ * run in the same process. Expired leases are swept at most once a second.
+ */
+public class InMemoryCoordinationStore implements CoordinationStore {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Long>> groups = new ConcurrentHashMap<>();
+    private volatile long lastSweep = System.nanoTime();
+
+    @Override
+    public boolean acquire(final String key, final String owner, final Duration ttl) {
+        final long now = System.nanoTime();
+        if (now - lastSweep > SWEEP_INTERVAL_NANOS) {
+            lastSweep = now;
+            leases.values().removeIf(lease -> lease.isExpired(now));
+        }
+        final Lease candidate = new Lease(owner, now + ttl.toNanos());
+        return leases.compute(key, (leaseKey, current) -> isNull(current) || current.isExpired(now) ? candidate : current) == candidate;
+    }
+
+    @Override
+    public void join(final String group, final String member, final Duration ttl) {
+        groups.computeIfAbsent(group, key -> new ConcurrentHashMap<>()).put(member, System.nanoTime() + ttl.toNanos());
+    }
+
+    @Override
+    public List<String> members(final String group) {
+        final Map<String, Long> members = groups.get(group);
+        if (isNull(members)) {
+            return Collections.emptyList();
+        }
+        final long now = System.nanoTime();
+        members.values().removeIf(expiresAt -> expiresAt - now <= 0);
+        return members.keySet().stream().sorted().toList();
+    }
+
+    @Override
+    public void leave(final String group, final String member) {
+        final Map<String, Long> members = groups.get(group);
+        if (nonNull(members)) {
+            members.remove(member);
+        }
+    }
+
+    private record Lease(String owner, long expiresAt) {
+
+        private boolean isExpired(final long now) {
+            return expiresAt - now <= 0;
+        }
+
+    }
+
+}
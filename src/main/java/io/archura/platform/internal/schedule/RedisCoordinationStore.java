@@ -0,0 +1,55 @@
+package io.archura.platform.internal.schedule;
+
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Coordination store on Redis, leases are keys set with NX and PX, group members are sorted set entries scored
+ * with their expiry time.
+ */
+public class RedisCoordinationStore implements CoordinationStore {
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisCoordinationStore(final RedisConnectionFactory redisConnectionFactory) {
+        this.redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+        this.redisTemplate.afterPropertiesSet();
+    }
+
+    @Override
+    public boolean acquire(final String key, final String owner, final Duration ttl) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, owner, ttl));
+    }
+
+    @Override
+    public void join(final String group, final String member, final Duration ttl) {
+        final long now = System.currentTimeMillis();
+        redisTemplate.opsForZSet().add(group, member, now + ttl.toMillis());
+        redisTemplate.opsForZSet().removeRangeByScore(group, Double.NEGATIVE_INFINITY, now);
+    }
+
+    @Override
+    public List<String> members(final String group) {
+        final Set<String> members = redisTemplate.opsForZSet().rangeByScore(group, System.currentTimeMillis(), Double.POSITIVE_INFINITY);
+        if (isNull(members)) {
+            return Collections.emptyList();
+        }
+        final List<String> sorted = new ArrayList<>(members);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    @Override
+    public void leave(final String group, final String member) {
+        redisTemplate.opsForZSet().remove(group, member);
+    }
+
+}
@@ -0,0 +1,260 @@
+package io.archura.platform.internal.schedule;
+
+import io.archura.platform.internal.configuration.CoordinationMode;
+import io.archura.platform.internal.configuration.GlobalConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Decides which node of the cluster runs a firing of a scheduled function.
+ * <ul>
+ *     <li>With the none mode every node runs every firing.</li>
+ *     <li>With the lease mode each firing is claimed with a lease keyed by the tenant, the function and the fire time,
+ *     only the node that acquires the lease runs the firing. The fire time comes from the cron expression,
+ *     so all nodes compete for the same key and the lease only has to outlive the clock skew between them.</li>
+ *     <li>With the sharded mode the nodes also send heartbeats to a shared member group, the live members form a
+ *     consistent hash ring and a node only claims the firings of the tenants it owns on the ring. Tenants move
+ *     to other nodes when a member joins or its heartbeat expires, the lease keeps a firing single during the move.</li>
+ * </ul>
+ */
+public class ScheduleCoordinator implements AutoCloseable {
+
+    public static final String MEMORY_STORE = "memory";
+    private static final String LEASE_KEY_FORMAT = "archura:schedule:lease:%s:%s:%d";
+    private static final String MEMBERS_KEY = "archura:schedule:members";
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final MeterRegistry meterRegistry;
+    private final String nodeId;
+    private volatile CoordinationMode mode = CoordinationMode.NONE;
+    private volatile CoordinationStore store;
+    private volatile NavigableMap<Long, String> ring = Collections.emptyNavigableMap();
+    private volatile List<String> members = Collections.emptyList();
+    private ScheduledExecutorService heartbeat;
+    private Duration leaseTtl;
+    private Duration memberTtl;
+    private int virtualNodes;
+    private Counter claimed;
+    private Counter lost;
+    private Counter notOwned;
+    private Counter errors;
+    private Counter rebalances;
+
+    public ScheduleCoordinator(final MeterRegistry meterRegistry) {
+        this(meterRegistry, String.format("%s-%d", getHostName(), ProcessHandle.current().pid()));
+    }
+
+    /**
+     * Creates a coordinator with the given node id, coordinators in the same process need distinct ids.
+     *
+     * @param meterRegistry meter registry.
+     * @param nodeId        id of the node on the hash ring and owner of its leases.
+     */
+    ScheduleCoordinator(final MeterRegistry meterRegistry, final String nodeId) {
+        this.meterRegistry = meterRegistry;
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Starts the coordination on the store selected by the configuration.
+     *
+     * @param configuration          scheduler configuration.
+     * @param redisConnectionFactory connection factory of the Redis store.
+     */
+    public void start(
+            final GlobalConfiguration.SchedulerConfiguration configuration,
+            final RedisConnectionFactory redisConnectionFactory
+    ) {
+        if (CoordinationMode.NONE == configuration.getCoordination()) {
+            start(configuration, (CoordinationStore) null);
+        } else if (MEMORY_STORE.equalsIgnoreCase(configuration.getCoordinationStore())) {
+            start(configuration, new InMemoryCoordinationStore());
+        } else {
+            start(configuration, new RedisCoordinationStore(redisConnectionFactory));
+        }
+    }
+
+    /**
+     * Starts the coordination on the given store, nodes sharing the store coordinate with each other.
+     *
+     * @param configuration scheduler configuration.
+     * @param store         coordination store.
+     */
+    public synchronized void start(
+            final GlobalConfiguration.SchedulerConfiguration configuration,
+            final CoordinationStore store
+    ) {
+        close();
+        this.claimed = Counter.builder("archura.scheduler.coordination.claims").tag("result", "claimed").register(meterRegistry);
+        this.lost = Counter.builder("archura.scheduler.coordination.claims").tag("result", "lost").register(meterRegistry);
+        this.notOwned = Counter.builder("archura.scheduler.coordination.claims").tag("result", "not-owned").register(meterRegistry);
+        this.errors = Counter.builder("archura.scheduler.coordination.errors").register(meterRegistry);
+        this.rebalances = Counter.builder("archura.scheduler.coordination.rebalances").register(meterRegistry);
+        Gauge.builder("archura.scheduler.coordination.members", this, coordinator -> coordinator.members.size()).register(meterRegistry);
+        if (isNull(store) || CoordinationMode.NONE == configuration.getCoordination()) {
+            return;
+        }
+        this.leaseTtl = Duration.ofSeconds(Math.max(1, configuration.getLeaseSeconds()));
+        this.memberTtl = Duration.ofSeconds(Math.max(1, configuration.getMemberTtlSeconds()));
+        this.virtualNodes = Math.max(1, configuration.getVirtualNodes());
+        this.mode = configuration.getCoordination();
+        this.store = store;
+        if (CoordinationMode.SHARDED == mode) {
+            this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "archura-schedule-heartbeat");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // join the ring before the first firing is claimed
+            heartbeat();
+            final long interval = Math.max(1, configuration.getHeartbeatSeconds());
+            heartbeat.scheduleWithFixedDelay(this::heartbeat, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Claims a firing of a scheduled function for this node, blocks on the coordination store.
+     *
+     * @param tenantKey       environment and tenant key of the function.
+     * @param functionKey     name and version of the function.
+     * @param fireEpochMillis scheduled fire time of the firing.
+     * @return true if this node runs the firing.
+     */
+    public boolean claim(final String tenantKey, final String functionKey, final long fireEpochMillis) {
+        final CoordinationStore current = store;
+        if (CoordinationMode.NONE == mode || isNull(current)) {
+            return true;
+        }
+        if (CoordinationMode.SHARDED == mode && !owns(tenantKey)) {
+            notOwned.increment();
+            return false;
+        }
+        try {
+            final String leaseKey = String.format(LEASE_KEY_FORMAT, tenantKey, functionKey, fireEpochMillis);
+            if (current.acquire(leaseKey, nodeId, leaseTtl)) {
+                claimed.increment();
+                return true;
+            }
+            lost.increment();
+            return false;
+        } catch (RuntimeException e) {
+            // without the store a firing can not be kept single, it is skipped on this node
+            errors.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Returns true if the tenant is owned by this node on the hash ring, all tenants are owned while the ring is empty.
+     *
+     * @param tenantKey environment and tenant key.
+     * @return true if this node owns the tenant.
+     */
+    public boolean owns(final String tenantKey) {
+        final NavigableMap<Long, String> current = ring;
+        if (current.isEmpty()) {
+            return true;
+        }
+        final Map.Entry<Long, String> entry = current.ceilingEntry(hash(tenantKey));
+        return nodeId.equals(nonNull(entry) ? entry.getValue() : current.firstEntry().getValue());
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (nonNull(heartbeat)) {
+            heartbeat.shutdownNow();
+            heartbeat = null;
+        }
+        final CoordinationStore current = store;
+        if (nonNull(current) && CoordinationMode.SHARDED == mode) {
+            try {
+                current.leave(MEMBERS_KEY, nodeId);
+            } catch (RuntimeException e) {
+                // the member expires with its last heartbeat
+            }
+        }
+        mode = CoordinationMode.NONE;
+        store = null;
+        ring = Collections.emptyNavigableMap();
+        members = Collections.emptyList();
+    }
+
+    /**
+     * Refreshes the membership of this node and rebuilds the hash ring if the live members changed.
+     */
+    void heartbeat() {
+        final CoordinationStore current = store;
+        if (isNull(current)) {
+            return;
+        }
+        try {
+            current.join(MEMBERS_KEY, nodeId, memberTtl);
+            final List<String> live = current.members(MEMBERS_KEY);
+            if (!live.equals(members)) {
+                ring = buildRing(live);
+                members = live;
+                rebalances.increment();
+            }
+        } catch (RuntimeException e) {
+            // keep the last ring, claims fail while the store is unreachable
+            errors.increment();
+        }
+    }
+
+    private NavigableMap<Long, String> buildRing(final List<String> live) {
+        final TreeMap<Long, String> newRing = new TreeMap<>();
+        for (String member : live) {
+            for (int i = 0; i < virtualNodes; i++) {
+                newRing.put(hash(String.format("%s#%d", member, i)), member);
+            }
+        }
+        return Collections.unmodifiableNavigableMap(newRing);
+    }
+
+    private static long hash(final String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= FNV_PRIME;
+        }
+        // spread the bits, FNV alone clusters the ring positions of similar member names
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static String getHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+
+}
@@ -0,0 +1,15 @@
+package io.archura.platform.internal.stream;
+
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+
+import java.util.List;
+
+/**
+ * Listener of the records of a stream key that are delivered in batches.
+ */
+@FunctionalInterface
+public interface BatchStreamListener {
+
+    void onMessages(List<ObjectRecord<String, byte[]>> records);
+
+}
@@ -0,0 +1,292 @@
+package io.archura.platform.internal.stream;
+
+import io.archura.platform.internal.concurrent.BatchFlusher;
+import io.archura.platform.internal.configuration.GlobalConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.stream.StreamListener;
+import org.springframework.data.redis.stream.Subscription;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Delivers the records of the topics configured with the local transport to the consumers of this node without Redis.
+ * <ul>
+ *     <li>Records are queued on a bounded lock-free ring buffer per topic and handed to the consumers by the topic's
+ *     dispatcher virtual thread as soon as it wakes up, the consumers of a topic receive its batches in turns.</li>
+ *     <li>A sender waits for the backpressure timeout while the ring buffer is full and is rejected if no room is freed.</li>
+ *     <li>A send to a topic without consumers on this node is rejected instead of returning the id of a record nobody receives,
+ *     records still queued when the last consumer unsubscribes are dropped and counted.</li>
+ *     <li>Topics with mirroring enabled also write their records to the Redis stream of the topic, a mirrored topic accepts
+ *     records without consumers. The dispatcher hands the records to a separate mirror flusher, so Redis never delays
+ *     the local delivery, records that do not fit into the mirror buffer are dropped and counted.
+ *     The mirrored records are not read by the consumers.</li>
+ * </ul>
+ */
+public class LocalStreamRegistry implements AutoCloseable {
+
+    public static final String LOCAL_TRANSPORT = "local";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, LocalTopic> topics = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile StreamOperations<String, Object, Object> streamOperations;
+    private Counter records;
+    private Counter rejected;
+    private Counter failures;
+    private Counter dropped;
+    private Counter mirrorErrors;
+    private Counter mirrorDropped;
+
+    public LocalStreamRegistry(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Creates the topics configured with the local transport.
+     *
+     * @param transports       stream transport configurations by the stream key of the topic.
+     * @param streamOperations stream operations of the mirrored topics.
+     */
+    public synchronized void start(
+            final Map<String, GlobalConfiguration.StreamTransportConfiguration> transports,
+            final StreamOperations<String, Object, Object> streamOperations
+    ) {
+        close();
+        this.streamOperations = streamOperations;
+        this.records = Counter.builder("archura.local.stream.records").register(meterRegistry);
+        this.rejected = Counter.builder("archura.local.stream.rejected").register(meterRegistry);
+        this.failures = Counter.builder("archura.local.stream.failures").register(meterRegistry);
+        this.dropped = Counter.builder("archura.local.stream.dropped").register(meterRegistry);
+        this.mirrorErrors = Counter.builder("archura.local.stream.mirror.errors").register(meterRegistry);
+        this.mirrorDropped = Counter.builder("archura.local.stream.mirror.dropped").register(meterRegistry);
+        if (isNull(transports)) {
+            return;
+        }
+        transports.forEach((streamKey, configuration) -> {
+            if (nonNull(configuration) && LOCAL_TRANSPORT.equalsIgnoreCase(configuration.getTransport())) {
+                topics.put(streamKey, new LocalTopic(streamKey, configuration));
+            }
+        });
+    }
+
+    /**
+     * Returns true if the topic is configured with the local transport.
+     *
+     * @param streamKey stream key of the topic.
+     * @return true if the records of the topic are delivered locally.
+     */
+    public boolean isLocal(final String streamKey) {
+        return topics.containsKey(streamKey);
+    }
+
+    /**
+     * Queues a record for the consumers of the topic.
+     *
+     * @param streamKey stream key of the topic.
+     * @param key       record key, may be null.
+     * @param value     record value.
+     * @return record id.
+     * @throws RejectedExecutionException if the topic has no consumers and is not mirrored,
+     *                                    or if the ring buffer of the topic stayed full for the backpressure timeout.
+     */
+    public String send(final String streamKey, final byte[] key, final byte[] value) {
+        final LocalTopic topic = topics.get(streamKey);
+        if (isNull(topic)) {
+            throw new RejectedExecutionException(String.format("Stream '%s' is not a local stream", streamKey));
+        }
+        if (!topic.mirror && topic.listeners.isEmpty()) {
+            rejected.increment();
+            throw new RejectedExecutionException(String.format("Local stream '%s' has no consumers", streamKey));
+        }
+        final RecordId recordId = RecordId.of(System.currentTimeMillis(), sequence.getAndIncrement());
+        final ObjectRecord<String, byte[]> streamRecord = StreamRecords.newRecord()
+                .in(streamKey)
+                .withId(recordId)
+                .ofObject(value);
+        if (!topic.offer(new LocalRecord(streamRecord, key))) {
+            rejected.increment();
+            throw new RejectedExecutionException(String.format("Local stream '%s' is full", streamKey));
+        }
+        return recordId.getValue();
+    }
+
+    /**
+     * Registers a listener for the records of the topic.
+     *
+     * @param streamKey      stream key of the topic.
+     * @param streamListener listener of the records.
+     * @return subscription, cancel it to stop receiving the records.
+     */
+    public Subscription subscribe(final String streamKey, final StreamListener<String, ObjectRecord<String, byte[]>> streamListener) {
+        return subscribe(streamKey, streamRecords -> {
+            for (ObjectRecord<String, byte[]> streamRecord : streamRecords) {
+                try {
+                    streamListener.onMessage(streamRecord);
+                } catch (RuntimeException e) {
+                    failures.increment();
+                }
+            }
+        });
+    }
+
+    /**
+     * Registers a listener for the records of the topic that receives them in batches.
+     *
+     * @param streamKey           stream key of the topic.
+     * @param batchStreamListener listener of the records.
+     * @return subscription, cancel it to stop receiving the records.
+     */
+    public Subscription subscribe(final String streamKey, final BatchStreamListener batchStreamListener) {
+        final LocalTopic topic = topics.get(streamKey);
+        if (isNull(topic)) {
+            throw new IllegalStateException(String.format("Stream '%s' is not a local stream", streamKey));
+        }
+        topic.listeners.add(batchStreamListener);
+        return new LocalSubscription(topic, batchStreamListener);
+    }
+
+    @Override
+    public synchronized void close() {
+        topics.values().forEach(LocalTopic::close);
+        topics.clear();
+    }
+
+    private void mirror(final String streamKey, final List<LocalRecord> localRecords) {
+        final byte[] rawKey = streamKey.getBytes(StandardCharsets.UTF_8);
+        try {
+            streamOperations.getOperations().executePipelined((RedisCallback<Object>) connection -> {
+                for (LocalRecord localRecord : localRecords) {
+                    connection.streamCommands().xAdd(rawKey, TenantStream.createFields(localRecord.key(), localRecord.record().getValue()));
+                }
+                return null;
+            });
+        } catch (DataAccessException e) {
+            mirrorErrors.increment();
+        }
+    }
+
+    private record LocalRecord(ObjectRecord<String, byte[]> record, byte[] key) {
+    }
+
+    private final class LocalTopic {
+
+        private final String streamKey;
+        private final boolean mirror;
+        private final long backpressureTimeoutNanos;
+        private final List<BatchStreamListener> listeners = new CopyOnWriteArrayList<>();
+        private final AtomicInteger turn = new AtomicInteger();
+        private final BatchFlusher<LocalRecord> flusher;
+        private final BatchFlusher<LocalRecord> mirrorFlusher;
+
+        private LocalTopic(final String streamKey, final GlobalConfiguration.StreamTransportConfiguration configuration) {
+            this.streamKey = streamKey;
+            this.mirror = configuration.isMirror();
+            this.backpressureTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, configuration.getBackpressureTimeoutMillis()));
+            // the dispatcher runs tenant code and the mirror waits on Redis, both run on virtual threads
+            this.flusher = new BatchFlusher<>(Thread.ofVirtual().name(String.format("%s-local", streamKey)).factory(), configuration.getBufferSize(),
+                    configuration.getBatchSize(), 0, this::dispatch);
+            this.mirrorFlusher = mirror
+                    ? new BatchFlusher<>(Thread.ofVirtual().name(String.format("%s-local-mirror", streamKey)).factory(), configuration.getBufferSize(),
+                    configuration.getBatchSize(), 0, localRecords -> mirror(streamKey, localRecords))
+                    : null;
+        }
+
+        private boolean offer(final LocalRecord localRecord) {
+            if (flusher.offer(localRecord)) {
+                return true;
+            }
+            final long deadline = System.nanoTime() + backpressureTimeoutNanos;
+            while (deadline - System.nanoTime() > 0) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                if (flusher.offer(localRecord)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void dispatch(final List<LocalRecord> localRecords) {
+            records.increment(localRecords.size());
+            final BatchStreamListener[] current = listeners.toArray(BatchStreamListener[]::new);
+            if (current.length > 0) {
+                final List<ObjectRecord<String, byte[]>> streamRecords = new ArrayList<>(localRecords.size());
+                for (LocalRecord localRecord : localRecords) {
+                    streamRecords.add(localRecord.record());
+                }
+                try {
+                    current[Math.floorMod(turn.getAndIncrement(), current.length)].onMessages(streamRecords);
+                } catch (RuntimeException e) {
+                    failures.increment(localRecords.size());
+                }
+            } else if (!mirror) {
+                dropped.increment(localRecords.size());
+            }
+            if (nonNull(mirrorFlusher)) {
+                for (LocalRecord localRecord : localRecords) {
+                    if (!mirrorFlusher.offer(localRecord)) {
+                        mirrorDropped.increment();
+                    }
+                }
+            }
+        }
+
+        private void close() {
+            flusher.close();
+            if (nonNull(mirrorFlusher)) {
+                mirrorFlusher.close();
+            }
+        }
+
+    }
+
+    private static final class LocalSubscription implements Subscription {
+
+        private final LocalTopic topic;
+        private final BatchStreamListener batchStreamListener;
+        private volatile boolean active = true;
+
+        private LocalSubscription(final LocalTopic topic, final BatchStreamListener batchStreamListener) {
+            this.topic = topic;
+            this.batchStreamListener = batchStreamListener;
+        }
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+
+        @Override
+        public boolean await(final Duration timeout) {
+            return isActive();
+        }
+
+        @Override
+        public void cancel() {
+            active = false;
+            topic.listeners.remove(batchStreamListener);
+        }
+
+    }
+
+}
@@ -1,49 +1,372 @@
 package io.archura.platform.internal.stream;
 
-
+import io.archura.platform.internal.concurrent.BatchFlusher;
+import io.archura.platform.internal.configuration.AckMode;
+import io.archura.platform.internal.configuration.GlobalConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.ByteRecord;
 import org.springframework.data.redis.connection.stream.Consumer;
 import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
 import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamInfo;
 import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
 import org.springframework.data.redis.stream.StreamListener;
-import org.springframework.data.redis.stream.StreamMessageListenerContainer;
 import org.springframework.data.redis.stream.Subscription;
 import org.springframework.stereotype.Component;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
+/**
+ * Reads the tenant streams with a fixed number of poller shards instead of one listener container per consumer.
+ * <ul>
+ *     <li>Every stream key is assigned to a shard by its hash, a shard issues one multi-key {@code XREADGROUP}
+ *     for all of its stream keys on its own connection.</li>
+ *     <li>All streams are read by the {@link #GROUP_NAME} consumer group, every stream key delivers its records in order
+ *     on its own virtual thread. A stream key with a poll count of records waiting for delivery is left out of the next
+ *     polls until its listeners catch up, so a slow listener never holds back the other stream keys of its shard.</li>
+ *     <li>Multiple listeners of the same stream key receive its records in turns.</li>
+ *     <li>A listener with a concurrency above one processes its records on that many virtual thread lanes, the lane of
+ *     a record is chosen by the hash of its key so the records of a key keep their order. Records without a key are
+ *     spread by their id. At most max in flight records are queued on the lanes, the stream key waits for a free slot.</li>
+ *     <li>A batch listener receives the records of its stream key in batches of at most the maximum batch size,
+ *     a batch is delivered on a virtual thread once it is full or the maximum wait time has passed.</li>
+ *     <li>A record is acknowledged by its listener's {@link AckMode}: right after the listener returns, in pipelined
+ *     multi-id {@code XACK} batches, or by the function itself. A record whose listener throws is not acknowledged.</li>
+ *     <li>Records pending longer than the minimum idle time, on this or a dead node, are claimed with {@code XCLAIM}
+ *     and delivered again, records delivered more than the maximum number of times are moved to the
+ *     {@code <stream key>-dead-letter} stream. Records this node still has queued or in delivery are not claimed,
+ *     so a slow listener does not receive duplicates of its own backlog.</li>
+ * </ul>
+ */
 @Component
-public class RedisStreamSubscription {
+@RequiredArgsConstructor
+public class RedisStreamSubscription implements DisposableBean {
 
-    public Subscription createConsumerSubscription(
+    public static final String GROUP_NAME = "archura";
+    public static final String DEAD_LETTER_SUFFIX = "-dead-letter";
+
+    private final MeterRegistry meterRegistry;
+    private final String consumerName = getHostName();
+    private final List<Shard> shards = new CopyOnWriteArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<String, Set<RecordId>> processing = new ConcurrentHashMap<>();
+    private volatile StreamOperations<String, Object, Object> streamOperations;
+    private volatile StreamReadOptions readOptions;
+    private volatile BatchFlusher<PendingAck> ackFlusher;
+    private volatile ScheduledExecutorService housekeeper;
+    private volatile Duration claimMinIdle;
+    private volatile int claimCount;
+    private volatile int maxDeliveries;
+    private volatile Counter acks;
+    private volatile Counter claims;
+    private volatile Counter deadLetters;
+    private volatile Counter failures;
+    private volatile Counter errors;
+
+    /**
+     * Starts the poller shards.
+     *
+     * @param configuration          stream poller configuration.
+     * @param redisConnectionFactory connection factory of the tenant streams.
+     * @param streamOperations       stream operations of the tenant streams.
+     */
+    public synchronized void start(
+            final GlobalConfiguration.StreamPollerConfiguration configuration,
             final RedisConnectionFactory redisConnectionFactory,
+            final StreamOperations<String, Object, Object> streamOperations
+    ) {
+        destroy();
+        this.streamOperations = streamOperations;
+        this.readOptions = StreamReadOptions.empty()
+                .count(Math.max(1, configuration.getCount()))
+                .block(Duration.ofMillis(Math.max(1, configuration.getBlockMillis())));
+        final Counter polls = Counter.builder("archura.stream.poller.polls").register(meterRegistry);
+        final Counter records = Counter.builder("archura.stream.poller.records").register(meterRegistry);
+        this.errors = Counter.builder("archura.stream.poller.errors").register(meterRegistry);
+        this.acks = Counter.builder("archura.stream.poller.acks").register(meterRegistry);
+        this.claims = Counter.builder("archura.stream.poller.claims").register(meterRegistry);
+        this.deadLetters = Counter.builder("archura.stream.poller.dead.letters").register(meterRegistry);
+        this.failures = Counter.builder("archura.stream.poller.failures").register(meterRegistry);
+        Gauge.builder("archura.stream.poller.in.flight", inFlight, AtomicInteger::get).register(meterRegistry);
+        this.claimMinIdle = Duration.ofSeconds(Math.max(1, configuration.getClaimMinIdleSeconds()));
+        this.claimCount = Math.max(1, configuration.getClaimCount());
+        this.maxDeliveries = Math.max(1, configuration.getMaxDeliveries());
+        this.ackFlusher = new BatchFlusher<>("archura-stream-ack-flusher", configuration.getAckQueueSize(),
+                configuration.getAckBatchSize(), TimeUnit.MILLISECONDS.toNanos(configuration.getAckLingerMillis()), this::flushAcks);
+        for (int i = 0; i < Math.max(1, configuration.getShards()); i++) {
+            final Shard shard = new Shard(redisConnectionFactory.getConnection(), polls, records);
+            final Thread thread = new Thread(shard, "archura-stream-poller-" + i);
+            thread.setDaemon(true);
+            shard.thread = thread;
+            shards.add(shard);
+            thread.start();
+        }
+        if (configuration.getClaimIntervalSeconds() > 0) {
+            this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "archura-stream-housekeeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            housekeeper.scheduleWithFixedDelay(this::claimStalledRecords, configuration.getClaimIntervalSeconds(),
+                    configuration.getClaimIntervalSeconds(), TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Creates the consumer group of the stream key, a stream that was read by the legacy group named after the stream key
+     * continues from the last record delivered to that group.
+     *
+     * @param streamKey stream key.
+     * @return group creation result.
+     */
+    public String createGroup(final String streamKey) {
+        return streamOperations.createGroup(streamKey, getGroupOffset(streamKey), GROUP_NAME);
+    }
+
+    /**
+     * Registers a listener for the records of the stream key.
+     *
+     * @param streamListener listener of the records, a record is not acknowledged if the listener throws.
+     * @param streamKey      stream key.
+     * @param ackMode        acknowledgement mode of the records delivered to the listener.
+     * @param concurrency    number of lanes processing the records of the listener, one processes them on the thread of the stream key.
+     * @param maxInFlight    maximum number of records queued on the lanes.
+     * @return subscription, cancel it to stop receiving the records.
+     */
+    public Subscription createConsumerSubscription(
             final StreamListener<String, ObjectRecord<String, byte[]>> streamListener,
             final String streamKey,
-            ExecutorService executorService) {
-        final StreamMessageListenerContainer<String, ObjectRecord<String, byte[]>> listenerContainer = streamMessageListenerContainer(redisConnectionFactory, executorService);
-        final Consumer consumer = Consumer.from(streamKey, getHostName());
-        final StreamOffset<String> streamOffset = StreamOffset.create(streamKey, ReadOffset.lastConsumed());
-        final Subscription subscription = listenerContainer.receive(consumer, streamOffset, streamListener);
-        listenerContainer.start();
-        return subscription;
+            final AckMode ackMode,
+            final int concurrency,
+            final int maxInFlight
+    ) {
+        return register(streamKey, new Registration(streamListener, ackMode, streamKey, concurrency, maxInFlight));
     }
 
-    private StreamMessageListenerContainer<String, ObjectRecord<String, byte[]>> streamMessageListenerContainer(
-            final RedisConnectionFactory redisConnectionFactory,
-            final ExecutorService executorService
+    /**
+     * Registers a listener for the records of the stream key that receives them in batches,
+     * the records of a batch are acknowledged together.
+     *
+     * @param batchStreamListener listener of the records, no record of a batch is acknowledged if the listener throws.
+     * @param streamKey           stream key.
+     * @param ackMode             acknowledgement mode of the records delivered to the listener.
+     * @param maxBatchSize        maximum number of records of a batch.
+     * @param maxWaitMillis       milliseconds to wait for more records before a batch is delivered.
+     * @param maxInFlight         maximum number of records waiting for a batch.
+     * @return subscription, cancel it to stop receiving the records.
+     */
+    public Subscription createBatchConsumerSubscription(
+            final BatchStreamListener batchStreamListener,
+            final String streamKey,
+            final AckMode ackMode,
+            final int maxBatchSize,
+            final long maxWaitMillis,
+            final int maxInFlight
     ) {
-        final StreamMessageListenerContainer.StreamMessageListenerContainerOptions<String, ObjectRecord<String, byte[]>> options = StreamMessageListenerContainer
-                .StreamMessageListenerContainerOptions
-                .builder()
-                .pollTimeout(Duration.ofSeconds(1))
-                .targetType(byte[].class)
-                .executor(executorService)
-                .build();
-        return StreamMessageListenerContainer.create(redisConnectionFactory, options);
+        return register(streamKey, new Registration(batchStreamListener, ackMode, streamKey, maxBatchSize, maxWaitMillis, maxInFlight));
+    }
+
+    private Subscription register(final String streamKey, final Registration registration) {
+        final Shard shard = shards.get(Math.floorMod(streamKey.hashCode(), shards.size()));
+        shard.listeners.computeIfAbsent(streamKey, key -> new CopyOnWriteArrayList<>()).add(registration);
+        LockSupport.unpark(shard.thread);
+        return new StreamSubscription(shard, streamKey, registration);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        for (Shard shard : shards) {
+            shard.running = false;
+            LockSupport.unpark(shard.thread);
+            shard.listeners.values().forEach(registrations -> registrations.forEach(Registration::close));
+            shard.dispatchers.values().forEach(StreamDispatcher::close);
+            shard.dispatchers.clear();
+        }
+        shards.clear();
+        processing.clear();
+        if (nonNull(housekeeper)) {
+            housekeeper.shutdownNow();
+            housekeeper = null;
+        }
+        if (nonNull(ackFlusher)) {
+            ackFlusher.close();
+            ackFlusher = null;
+        }
+    }
+
+    private void deliver(final Registration registration, final String streamKey, final ObjectRecord<String, byte[]> streamRecord) {
+        try {
+            registration.streamListener.onMessage(streamRecord);
+        } catch (RuntimeException e) {
+            // the record stays pending and is claimed again
+            failures.increment();
+            return;
+        } finally {
+            untrack(streamKey, List.of(streamRecord.getId()));
+        }
+        acknowledge(registration.ackMode, streamKey, streamRecord.getId());
+    }
+
+    private void track(final String streamKey, final List<StreamEntry> streamEntries) {
+        final Set<RecordId> recordIds = processing.computeIfAbsent(streamKey, key -> ConcurrentHashMap.newKeySet());
+        for (StreamEntry streamEntry : streamEntries) {
+            recordIds.add(streamEntry.record().getId());
+        }
+    }
+
+    private void untrack(final String streamKey, final List<RecordId> recordIds) {
+        final Set<RecordId> tracked = processing.get(streamKey);
+        if (nonNull(tracked)) {
+            recordIds.forEach(tracked::remove);
+        }
+    }
+
+    private boolean isProcessing(final String streamKey, final RecordId recordId) {
+        final Set<RecordId> tracked = processing.get(streamKey);
+        return nonNull(tracked) && tracked.contains(recordId);
+    }
+
+    private StreamEntry toStreamEntry(final ByteRecord byteRecord) {
+        byte[] payload = null;
+        byte[] key = null;
+        for (Map.Entry<byte[], byte[]> field : byteRecord.getValue().entrySet()) {
+            final String fieldName = new String(field.getKey(), StandardCharsets.UTF_8);
+            if (TenantStream.PAYLOAD_FIELD.equals(fieldName)) {
+                payload = field.getValue();
+            } else if (TenantStream.KEY_FIELD.equals(fieldName)) {
+                key = field.getValue();
+            } else if (isNull(payload)) {
+                payload = field.getValue();
+            }
+        }
+        final ObjectRecord<String, byte[]> objectRecord = StreamRecords.newRecord()
+                .in(new String(byteRecord.getStream(), StandardCharsets.UTF_8))
+                .withId(byteRecord.getId())
+                .ofObject(payload);
+        return new StreamEntry(objectRecord, key);
+    }
+
+    private void deliverBatch(final Registration registration, final String streamKey, final List<ObjectRecord<String, byte[]>> streamRecords) {
+        try {
+            registration.batchStreamListener.onMessages(streamRecords);
+        } catch (RuntimeException e) {
+            // the records stay pending and are claimed again
+            failures.increment(streamRecords.size());
+            return;
+        } finally {
+            untrack(streamKey, streamRecords.stream().map(ObjectRecord::getId).toList());
+        }
+        acknowledge(registration.ackMode, streamKey, streamRecords.stream().map(ObjectRecord::getId).toArray(RecordId[]::new));
+    }
+
+    private void acknowledge(final AckMode ackMode, final String streamKey, final RecordId... recordIds) {
+        if (AckMode.MANUAL == ackMode || recordIds.length == 0) {
+            return;
+        }
+        int offered = 0;
+        final BatchFlusher<PendingAck> flusher = ackFlusher;
+        if (AckMode.BATCHED == ackMode && nonNull(flusher)) {
+            while (offered < recordIds.length && flusher.offer(new PendingAck(streamKey, recordIds[offered]))) {
+                offered++;
+            }
+            if (offered == recordIds.length) {
+                return;
+            }
+        }
+        try {
+            streamOperations.acknowledge(streamKey, GROUP_NAME, Arrays.copyOfRange(recordIds, offered, recordIds.length));
+            acks.increment(recordIds.length - offered);
+        } catch (DataAccessException e) {
+            // the records stay pending and are claimed again
+            errors.increment();
+        }
+    }
+
+    private void flushAcks(final List<PendingAck> pendingAcks) {
+        final Map<String, List<RecordId>> recordIdsByStream = new LinkedHashMap<>();
+        for (PendingAck pendingAck : pendingAcks) {
+            recordIdsByStream.computeIfAbsent(pendingAck.streamKey(), key -> new ArrayList<>()).add(pendingAck.recordId());
+        }
+        try {
+            streamOperations.getOperations().executePipelined((RedisCallback<Object>) connection -> {
+                recordIdsByStream.forEach((streamKey, recordIds) ->
+                        connection.streamCommands().xAck(rawKey(streamKey), GROUP_NAME, recordIds.toArray(RecordId[]::new)));
+                return null;
+            });
+            acks.increment(pendingAcks.size());
+        } catch (DataAccessException e) {
+            // the records stay pending and are claimed again
+            errors.increment();
+        }
+    }
+
+    private void claimStalledRecords() {
+        for (Shard shard : shards) {
+            for (String streamKey : shard.listeners.keySet()) {
+                try {
+                    shard.claim(streamKey);
+                } catch (RuntimeException e) {
+                    // keep the housekeeping schedule running
+                    errors.increment();
+                }
+            }
+        }
+    }
+
+    private byte[] rawKey(final String streamKey) {
+        return streamKey.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private ReadOffset getGroupOffset(final String streamKey) {
+        try {
+            final StreamInfo.XInfoGroups groups = streamOperations.groups(streamKey);
+            return groups.stream()
+                    .filter(group -> streamKey.equals(group.groupName()))
+                    .findFirst()
+                    .map(group -> ReadOffset.from(group.lastDeliveredId()))
+                    .orElse(ReadOffset.latest());
+        } catch (DataAccessException e) {
+            // the stream does not exist yet
+            return ReadOffset.latest();
+        }
     }
 
     private String getHostName() {
@@ -54,4 +377,382 @@ public class RedisStreamSubscription {
         }
     }
 
-}
\ No newline at end of file
+    private final class Shard implements Runnable {
+
+        private final Map<String, List<Registration>> listeners = new ConcurrentHashMap<>();
+        private final Map<String, StreamDispatcher> dispatchers = new ConcurrentHashMap<>();
+        private final RedisConnection connection;
+        private final Counter polls;
+        private final Counter records;
+        private volatile boolean running = true;
+        private Thread thread;
+
+        private Shard(final RedisConnection connection, final Counter polls, final Counter records) {
+            this.connection = connection;
+            this.polls = polls;
+            this.records = records;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    final List<String> streamKeys = getReadyStreamKeys();
+                    if (streamKeys.isEmpty()) {
+                        LockSupport.park(this);
+                        continue;
+                    }
+                    poll(streamKeys);
+                }
+            } finally {
+                connection.close();
+            }
+        }
+
+        private List<String> getReadyStreamKeys() {
+            final List<String> streamKeys = new ArrayList<>(listeners.size());
+            for (String streamKey : listeners.keySet()) {
+                final StreamDispatcher dispatcher = dispatchers.get(streamKey);
+                if (isNull(dispatcher) || dispatcher.hasCapacity()) {
+                    streamKeys.add(streamKey);
+                }
+            }
+            return streamKeys;
+        }
+
+        private void poll(final List<String> streamKeys) {
+            @SuppressWarnings("unchecked") final StreamOffset<byte[]>[] offsets = streamKeys.stream()
+                    .map(streamKey -> StreamOffset.create(rawKey(streamKey), ReadOffset.lastConsumed()))
+                    .toArray(StreamOffset[]::new);
+            try {
+                polls.increment();
+                final List<ByteRecord> byteRecords = connection.streamCommands().xReadGroup(Consumer.from(GROUP_NAME, consumerName), readOptions, offsets);
+                if (nonNull(byteRecords) && !byteRecords.isEmpty()) {
+                    records.increment(byteRecords.size());
+                    dispatch(byteRecords);
+                }
+            } catch (DataAccessException e) {
+                errors.increment();
+                if (nonNull(e.getMessage()) && e.getMessage().contains("NOGROUP")) {
+                    streamKeys.forEach(this::recreateGroup);
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(readOptions.getBlock()));
+            }
+        }
+
+        private void recreateGroup(final String streamKey) {
+            try {
+                createGroup(streamKey);
+            } catch (DataAccessException e) {
+                // the group exists
+            }
+        }
+
+        private void claim(final String streamKey) {
+            final PendingMessages pendingMessages = streamOperations.pending(streamKey, GROUP_NAME, Range.unbounded(), claimCount);
+            final List<RecordId> stalled = new ArrayList<>();
+            final List<RecordId> exhausted = new ArrayList<>();
+            for (PendingMessage pendingMessage : pendingMessages) {
+                if (pendingMessage.getElapsedTimeSinceLastDelivery().compareTo(claimMinIdle) < 0
+                        || isProcessing(streamKey, pendingMessage.getId())) {
+                    continue;
+                }
+                if (pendingMessage.getTotalDeliveryCount() >= maxDeliveries) {
+                    exhausted.add(pendingMessage.getId());
+                } else {
+                    stalled.add(pendingMessage.getId());
+                }
+            }
+            if (!exhausted.isEmpty()) {
+                moveToDeadLetter(streamKey, exhausted);
+            }
+            if (!stalled.isEmpty()) {
+                final List<ByteRecord> claimed = streamOperations.getOperations().execute((RedisCallback<List<ByteRecord>>) redisConnection ->
+                        redisConnection.streamCommands().xClaim(rawKey(streamKey), GROUP_NAME, consumerName, claimOptions(stalled)));
+                if (nonNull(claimed) && !claimed.isEmpty()) {
+                    claims.increment(claimed.size());
+                    dispatch(claimed);
+                }
+            }
+        }
+
+        private void moveToDeadLetter(final String streamKey, final List<RecordId> recordIds) {
+            final byte[] deadLetterKey = rawKey(streamKey + DEAD_LETTER_SUFFIX);
+            streamOperations.getOperations().execute((RedisCallback<Object>) redisConnection -> {
+                final RedisStreamCommands streamCommands = redisConnection.streamCommands();
+                final List<ByteRecord> claimed = streamCommands.xClaim(rawKey(streamKey), GROUP_NAME, consumerName, claimOptions(recordIds));
+                if (nonNull(claimed)) {
+                    for (ByteRecord byteRecord : claimed) {
+                        streamCommands.xAdd(byteRecord.withId(RecordId.autoGenerate()).withStreamKey(deadLetterKey));
+                    }
+                }
+                streamCommands.xAck(rawKey(streamKey), GROUP_NAME, recordIds.toArray(RecordId[]::new));
+                return null;
+            });
+            deadLetters.increment(recordIds.size());
+        }
+
+        private RedisStreamCommands.XClaimOptions claimOptions(final List<RecordId> recordIds) {
+            return RedisStreamCommands.XClaimOptions.minIdle(claimMinIdle).ids(recordIds.toArray(RecordId[]::new));
+        }
+
+        private void dispatch(final List<ByteRecord> byteRecords) {
+            final Map<String, List<StreamEntry>> entriesByStream = new LinkedHashMap<>();
+            for (ByteRecord byteRecord : byteRecords) {
+                final StreamEntry streamEntry = toStreamEntry(byteRecord);
+                entriesByStream.computeIfAbsent(streamEntry.record().getStream(), key -> new ArrayList<>()).add(streamEntry);
+            }
+            entriesByStream.forEach((streamKey, streamEntries) -> {
+                final List<Registration> registrations = listeners.get(streamKey);
+                if (isNull(registrations) || registrations.isEmpty()) {
+                    return;
+                }
+                dispatchers.computeIfAbsent(streamKey, key -> new StreamDispatcher(this, key)).dispatch(registrations, streamEntries);
+            });
+        }
+
+        private void removeDispatcher(final String streamKey) {
+            final StreamDispatcher dispatcher = dispatchers.remove(streamKey);
+            if (nonNull(dispatcher)) {
+                dispatcher.close();
+            }
+            processing.remove(streamKey);
+        }
+
+    }
+
+    /**
+     * Delivers the records of a stream key in order on its own virtual thread, the poller only hands the records over.
+     */
+    private final class StreamDispatcher {
+
+        private final Shard shard;
+        private final String streamKey;
+        private final ExecutorService executor;
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicInteger turn = new AtomicInteger();
+        private final long capacity = readOptions.getCount();
+
+        private StreamDispatcher(final Shard shard, final String streamKey) {
+            this.shard = shard;
+            this.streamKey = streamKey;
+            this.executor = Executors.newSingleThreadExecutor(Thread.ofVirtual().name(String.format("%s-dispatcher", streamKey)).factory());
+        }
+
+        private boolean hasCapacity() {
+            return pending.get() < capacity;
+        }
+
+        private void dispatch(final List<Registration> registrations, final List<StreamEntry> streamEntries) {
+            pending.addAndGet(streamEntries.size());
+            track(streamKey, streamEntries);
+            try {
+                executor.execute(() -> {
+                    int submitted = 0;
+                    try {
+                        for (StreamEntry streamEntry : streamEntries) {
+                            final Registration registration = registrations.get(Math.floorMod(turn.getAndIncrement(), registrations.size()));
+                            if (!registration.submit(streamKey, streamEntry)) {
+                                return;
+                            }
+                            submitted++;
+                        }
+                    } catch (RuntimeException e) {
+                        // the listeners changed during the delivery, the remaining records stay pending and are claimed again
+                        errors.increment();
+                    } finally {
+                        untrack(streamEntries.subList(submitted, streamEntries.size()));
+                        release(streamEntries.size());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // the stream key is no longer read, the records stay pending and are claimed again
+                untrack(streamEntries);
+                release(streamEntries.size());
+            }
+        }
+
+        private void untrack(final List<StreamEntry> streamEntries) {
+            RedisStreamSubscription.this.untrack(streamKey, streamEntries.stream().map(streamEntry -> streamEntry.record().getId()).toList());
+        }
+
+        private void release(final int count) {
+            if (pending.addAndGet(-count) < capacity) {
+                LockSupport.unpark(shard.thread);
+            }
+        }
+
+        private void close() {
+            executor.shutdownNow();
+        }
+
+    }
+
+    private record StreamEntry(ObjectRecord<String, byte[]> record, byte[] key) {
+    }
+
+    private final class Registration {
+
+        private final StreamListener<String, ObjectRecord<String, byte[]>> streamListener;
+        private final BatchStreamListener batchStreamListener;
+        private final AckMode ackMode;
+        private final ExecutorService[] lanes;
+        private final Semaphore window;
+        private final BatchFlusher<ObjectRecord<String, byte[]>> batchFlusher;
+        private volatile boolean closed;
+
+        private Registration(
+                final StreamListener<String, ObjectRecord<String, byte[]>> streamListener,
+                final AckMode ackMode,
+                final String streamKey,
+                final int concurrency,
+                final int maxInFlight
+        ) {
+            this.streamListener = streamListener;
+            this.batchStreamListener = null;
+            this.ackMode = ackMode;
+            this.batchFlusher = null;
+            if (concurrency > 1) {
+                this.lanes = new ExecutorService[concurrency];
+                for (int i = 0; i < concurrency; i++) {
+                    lanes[i] = Executors.newSingleThreadExecutor(Thread.ofVirtual().name(String.format("%s-lane-%d", streamKey, i)).factory());
+                }
+                this.window = new Semaphore(Math.max(1, maxInFlight));
+            } else {
+                this.lanes = null;
+                this.window = null;
+            }
+        }
+
+        private Registration(
+                final BatchStreamListener batchStreamListener,
+                final AckMode ackMode,
+                final String streamKey,
+                final int maxBatchSize,
+                final long maxWaitMillis,
+                final int maxInFlight
+        ) {
+            this.streamListener = null;
+            this.batchStreamListener = batchStreamListener;
+            this.ackMode = ackMode;
+            this.lanes = null;
+            this.window = null;
+            // the batches run tenant code, a virtual thread keeps the thread count independent of the number of topics
+            this.batchFlusher = new BatchFlusher<>(Thread.ofVirtual().name(String.format("%s-batch", streamKey)).factory(), Math.max(maxBatchSize, maxInFlight),
+                    maxBatchSize, TimeUnit.MILLISECONDS.toNanos(maxWaitMillis), streamRecords -> deliverBatch(this, streamKey, streamRecords));
+        }
+
+        /**
+         * Delivers the record on the calling thread, queues it for the next batch or on the lane of its key
+         * once there is room for it.
+         *
+         * @return false if the calling thread was interrupted while waiting for room.
+         */
+        private boolean submit(final String streamKey, final StreamEntry streamEntry) {
+            if (closed) {
+                // the subscription is cancelled, the record stays pending and is claimed again
+                untrack(streamKey, List.of(streamEntry.record().getId()));
+                return true;
+            }
+            if (nonNull(batchFlusher)) {
+                while (!batchFlusher.offer(streamEntry.record())) {
+                    if (closed) {
+                        // the subscription is cancelled, the record stays pending and is claimed again
+                        untrack(streamKey, List.of(streamEntry.record().getId()));
+                        return true;
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    if (Thread.currentThread().isInterrupted()) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            if (isNull(lanes)) {
+                deliver(this, streamKey, streamEntry.record());
+                return true;
+            }
+            try {
+                window.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            final byte[] orderingKey = nonNull(streamEntry.key())
+                    ? streamEntry.key()
+                    : streamEntry.record().getId().getValue().getBytes(StandardCharsets.UTF_8);
+            inFlight.incrementAndGet();
+            try {
+                lanes[Math.floorMod(Arrays.hashCode(orderingKey), lanes.length)].execute(() -> {
+                    try {
+                        deliver(this, streamKey, streamEntry.record());
+                    } finally {
+                        inFlight.decrementAndGet();
+                        window.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // the subscription is cancelled, the record stays pending and is claimed again
+                untrack(streamKey, List.of(streamEntry.record().getId()));
+                inFlight.decrementAndGet();
+                window.release();
+            }
+            return true;
+        }
+
+        private void close() {
+            closed = true;
+            if (nonNull(batchFlusher)) {
+                batchFlusher.close();
+            }
+            if (nonNull(lanes)) {
+                for (ExecutorService lane : lanes) {
+                    lane.shutdown();
+                }
+            }
+        }
+
+    }
+
+    private record PendingAck(String streamKey, RecordId recordId) {
+    }
+
+    private static final class StreamSubscription implements Subscription {
+
+        private final Shard shard;
+        private final String streamKey;
+        private final Registration registration;
+        private volatile boolean active = true;
+
+        private StreamSubscription(final Shard shard, final String streamKey, final Registration registration) {
+            this.shard = shard;
+            this.streamKey = streamKey;
+            this.registration = registration;
+        }
+
+        @Override
+        public boolean isActive() {
+            return active && shard.running;
+        }
+
+        @Override
+        public boolean await(final Duration timeout) {
+            return isActive();
+        }
+
+        @Override
+        public void cancel() {
+            active = false;
+            shard.listeners.computeIfPresent(streamKey, (key, registrations) -> {
+                registrations.remove(registration);
+                return registrations.isEmpty() ? null : registrations;
+            });
+            if (!shard.listeners.containsKey(streamKey)) {
+                shard.removeDispatcher(streamKey);
+            }
+            registration.close();
+        }
+
+    }
+
+}
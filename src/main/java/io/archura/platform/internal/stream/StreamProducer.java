@@ -0,0 +1,149 @@
+package io.archura.platform.internal.stream;
+
+import io.archura.platform.internal.concurrent.BatchFlusher;
+import io.archura.platform.internal.configuration.GlobalConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StreamOperations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Sends stream records in pipelined {@code XADD} batches.
+ * <ul>
+ *     <li>Records are queued and flushed by a single thread once the linger time has passed or the batch is full,
+ *     records of the same stream key keep their order.</li>
+ *     <li>Each tenant may have a limited number of records waiting to be sent,
+ *     a sender waits for the backpressure timeout and is rejected if no capacity is freed.</li>
+ * </ul>
+ */
+public class StreamProducer implements AutoCloseable {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Semaphore> tenantPermits = new ConcurrentHashMap<>();
+    private volatile BatchFlusher<PendingRecord> flusher;
+    private volatile StreamOperations<String, Object, Object> streamOperations;
+    private int maxPendingPerTenant;
+    private long backpressureTimeoutNanos;
+    private DistributionSummary batchSize;
+    private Counter rejected;
+
+    public StreamProducer(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Starts the producer if it is enabled in the configuration.
+     *
+     * @param configuration    stream producer configuration.
+     * @param streamOperations stream operations of the tenant streams.
+     */
+    public synchronized void start(final GlobalConfiguration.StreamProducerConfiguration configuration, final StreamOperations<String, Object, Object> streamOperations) {
+        close();
+        if (isNull(configuration) || !configuration.isEnabled()) {
+            return;
+        }
+        this.streamOperations = streamOperations;
+        this.maxPendingPerTenant = Math.max(1, configuration.getMaxPendingPerTenant());
+        this.backpressureTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, configuration.getBackpressureTimeoutMillis()));
+        this.batchSize = DistributionSummary.builder("archura.stream.producer.batch.size").register(meterRegistry);
+        this.rejected = Counter.builder("archura.stream.producer.rejected").register(meterRegistry);
+        this.flusher = new BatchFlusher<>("archura-stream-producer", configuration.getQueueSize(), configuration.getBatchSize(),
+                TimeUnit.MILLISECONDS.toNanos(configuration.getLingerMillis()), this::flush);
+    }
+
+    public boolean isStarted() {
+        return nonNull(flusher);
+    }
+
+    /**
+     * Queues a record for the next batch.
+     *
+     * @param tenantKey    environment and tenant key of the sender.
+     * @param streamRecord record to send.
+     * @return future of the record id, completed exceptionally with a {@link RejectedExecutionException}
+     * if the tenant has too many records waiting or the queue is full.
+     */
+    public CompletableFuture<String> send(final String tenantKey, final ObjectRecord<String, byte[]> streamRecord) {
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        final Semaphore permits = tenantPermits.computeIfAbsent(tenantKey, key -> new Semaphore(maxPendingPerTenant));
+        if (!tryAcquire(permits)) {
+            rejected.increment();
+            result.completeExceptionally(new RejectedExecutionException(String.format("Too many stream records waiting to be sent for '%s'", tenantKey)));
+            return result;
+        }
+        result.whenComplete((recordId, throwable) -> permits.release());
+        final BatchFlusher<PendingRecord> batchFlusher = flusher;
+        if (isNull(batchFlusher) || !batchFlusher.offer(new PendingRecord(streamRecord, result))) {
+            rejected.increment();
+            result.completeExceptionally(new RejectedExecutionException("Stream producer queue is full"));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void close() {
+        final BatchFlusher<PendingRecord> batchFlusher = flusher;
+        if (nonNull(batchFlusher)) {
+            batchFlusher.close();
+            flusher = null;
+        }
+    }
+
+    private boolean tryAcquire(final Semaphore permits) {
+        try {
+            return permits.tryAcquire(backpressureTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void flush(final List<PendingRecord> batch) {
+        try {
+            final List<Object> results = streamOperations.getOperations().executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(final RedisOperations<K, V> operations) {
+                    for (PendingRecord pendingRecord : batch) {
+                        streamOperations.add(pendingRecord.streamRecord());
+                    }
+                    return null;
+                }
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                final Object result = i < results.size() ? results.get(i) : null;
+                batch.get(i).result().complete(toRecordId(result));
+            }
+            batchSize.record(batch.size());
+        } catch (RuntimeException e) {
+            for (PendingRecord pendingRecord : batch) {
+                pendingRecord.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    private String toRecordId(final Object result) {
+        if (result instanceof RecordId recordId) {
+            return recordId.getValue();
+        }
+        return result instanceof String recordId ? recordId : null;
+    }
+
+    private record PendingRecord(ObjectRecord<String, byte[]> streamRecord, CompletableFuture<String> result) {
+    }
+
+}
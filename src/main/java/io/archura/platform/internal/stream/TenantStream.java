@@ -1,33 +1,109 @@
 package io.archura.platform.internal.stream;
 
 import io.archura.platform.api.stream.LightStream;
+import io.archura.platform.external.AsyncLightStream;
+import io.archura.platform.external.KeyedLightStream;
+import io.archura.platform.external.StreamAcknowledger;
 import jdk.internal.reflect.Reflection;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.redis.connection.stream.ObjectRecord;
 import org.springframework.data.redis.connection.stream.RecordId;
 import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StreamOperations;
 
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 @RequiredArgsConstructor
-public class TenantStream implements LightStream {
+public class TenantStream implements LightStream, KeyedLightStream, AsyncLightStream, StreamAcknowledger {
 
     static {
-        Reflection.registerFieldsToFilter(TenantStream.class, Set.of("tenantKey", "streamOperations"));
+        Reflection.registerFieldsToFilter(TenantStream.class, Set.of("tenantKey", "streamOperations", "streamProducer", "topicPartitioner", "localStreamRegistry"));
     }
 
+    public static final String PAYLOAD_FIELD = "payload";
+    public static final String KEY_FIELD = "key";
+
     private final String tenantKey;
     private final StreamOperations<String, Object, Object> streamOperations;
+    private final StreamProducer streamProducer;
+    private final TopicPartitioner topicPartitioner;
+    private final LocalStreamRegistry localStreamRegistry;
 
     public Optional<String> send(final String topicName, final byte[] value) {
-        final String streamKey = String.format("%s-%s", tenantKey, topicName);
-        final ObjectRecord<String, byte[]> streamRecord = StreamRecords.newRecord()
-                .ofObject(value)
-                .withStreamKey(streamKey);
+        final String localStreamKey = getStreamKey(topicName);
+        if (localStreamRegistry.isLocal(localStreamKey)) {
+            return Optional.of(localStreamRegistry.send(localStreamKey, null, value));
+        }
+        final ObjectRecord<String, byte[]> streamRecord = createRecord(topicName, value);
         final RecordId recordId = streamOperations.add(streamRecord);
-        return Optional.ofNullable(recordId).map(RecordId::getValue);
+        return Optional.ofNullable(recordId).map(id -> topicPartitioner.qualifyRecordId(streamRecord.getStream(), id.getValue()));
+    }
+
+    @Override
+    public Optional<String> send(final String topicName, final byte[] key, final byte[] value) {
+        final String localStreamKey = getStreamKey(topicName);
+        if (localStreamRegistry.isLocal(localStreamKey)) {
+            return Optional.of(localStreamRegistry.send(localStreamKey, key, value));
+        }
+        final Map<byte[], byte[]> fields = createFields(key, value);
+        final String partitionKey = topicPartitioner.selectPartitionKey(getStreamKey(topicName), key);
+        final byte[] streamKey = partitionKey.getBytes(StandardCharsets.UTF_8);
+        final RecordId recordId = streamOperations.getOperations()
+                .execute((RedisCallback<RecordId>) connection -> connection.streamCommands().xAdd(streamKey, fields));
+        return Optional.ofNullable(recordId).map(id -> topicPartitioner.qualifyRecordId(partitionKey, id.getValue()));
+    }
+
+    @Override
+    public CompletableFuture<String> sendAsync(final String topicName, final byte[] value) {
+        if (isNull(streamProducer) || localStreamRegistry.isLocal(getStreamKey(topicName))) {
+            return CompletableFuture.completedFuture(send(topicName, value).orElse(null));
+        }
+        final ObjectRecord<String, byte[]> streamRecord = createRecord(topicName, value);
+        return streamProducer.send(tenantKey, streamRecord)
+                .thenApply(recordId -> topicPartitioner.qualifyRecordId(streamRecord.getStream(), recordId));
+    }
+
+    @Override
+    public long acknowledge(final String topicName, final String... recordIds) {
+        if (recordIds.length == 0 || localStreamRegistry.isLocal(getStreamKey(topicName))) {
+            return 0;
+        }
+        long acknowledged = 0;
+        final Map<String, List<String>> recordIdsByKey = topicPartitioner.groupRecordIds(getStreamKey(topicName), recordIds);
+        for (Map.Entry<String, List<String>> entry : recordIdsByKey.entrySet()) {
+            final Long partitionAcknowledged = streamOperations.acknowledge(entry.getKey(), RedisStreamSubscription.GROUP_NAME, entry.getValue().toArray(String[]::new));
+            acknowledged += isNull(partitionAcknowledged) ? 0 : partitionAcknowledged;
+        }
+        return acknowledged;
+    }
+
+    static Map<byte[], byte[]> createFields(final byte[] key, final byte[] value) {
+        final Map<byte[], byte[]> fields = new LinkedHashMap<>();
+        fields.put(PAYLOAD_FIELD.getBytes(StandardCharsets.UTF_8), value);
+        if (nonNull(key)) {
+            fields.put(KEY_FIELD.getBytes(StandardCharsets.UTF_8), key);
+        }
+        return fields;
+    }
+
+    private ObjectRecord<String, byte[]> createRecord(final String topicName, final byte[] value) {
+        return StreamRecords.newRecord()
+                .ofObject(value)
+                .withStreamKey(topicPartitioner.selectPartitionKey(getStreamKey(topicName), null));
+    }
+
+    private String getStreamKey(final String topicName) {
+        return String.format("%s-%s", tenantKey, topicName);
     }
 
 }
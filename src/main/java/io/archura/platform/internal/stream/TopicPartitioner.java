@@ -0,0 +1,141 @@
+package io.archura.platform.internal.stream;
+
+import io.archura.platform.internal.configuration.GlobalConfiguration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Maps the topics declared with partitions in the global configuration to one stream key per partition.
+ * <ul>
+ *     <li>Partitions are declared by the stream key of the topic, e.g. {@code default|default-orders: 8},
+ *     the stream key of a partition is {@code <stream key>#<partition>}.</li>
+ *     <li>Topics without partitions keep their single stream key.</li>
+ *     <li>Records with a key are sent to the partition of the key hash, records without a key to the partitions in turns.</li>
+ *     <li>Record ids of partitioned topics are qualified with the partition as {@code <partition>/<record id>},
+ *     so a record is acknowledged on the partition it was read from.</li>
+ * </ul>
+ */
+public class TopicPartitioner {
+
+    private static final char PARTITION_SEPARATOR = '#';
+    private static final char RECORD_ID_SEPARATOR = '/';
+
+    private final Map<String, AtomicInteger> turns = new ConcurrentHashMap<>();
+    private volatile Map<String, Integer> partitions = new HashMap<>();
+
+    /**
+     * Applies the stream partitions of the global configuration.
+     *
+     * @param globalConfig global configuration.
+     */
+    public void configure(final GlobalConfiguration.GlobalConfig globalConfig) {
+        final Map<String, Integer> configured = new HashMap<>();
+        if (nonNull(globalConfig.getStreamPartitions())) {
+            globalConfig.getStreamPartitions().forEach((streamKey, count) -> {
+                if (nonNull(count) && count > 1) {
+                    configured.put(streamKey, count);
+                }
+            });
+        }
+        this.partitions = configured;
+        turns.clear();
+    }
+
+    /**
+     * Returns the stream keys of all partitions of the topic.
+     *
+     * @param streamKey stream key of the topic.
+     * @return partition stream keys, the stream key itself if the topic has no partitions.
+     */
+    public List<String> getPartitionKeys(final String streamKey) {
+        final Integer count = partitions.get(streamKey);
+        if (isNull(count)) {
+            return List.of(streamKey);
+        }
+        final List<String> partitionKeys = new ArrayList<>(count);
+        for (int partition = 0; partition < count; partition++) {
+            partitionKeys.add(getPartitionKey(streamKey, partition));
+        }
+        return partitionKeys;
+    }
+
+    /**
+     * Returns the stream key of the partition a record is sent to.
+     *
+     * @param streamKey stream key of the topic.
+     * @param key       record key, null sends the records to the partitions in turns.
+     * @return partition stream key, the stream key itself if the topic has no partitions.
+     */
+    public String selectPartitionKey(final String streamKey, final byte[] key) {
+        final Integer count = partitions.get(streamKey);
+        if (isNull(count)) {
+            return streamKey;
+        }
+        final int partition = nonNull(key)
+                ? Math.floorMod(Arrays.hashCode(key), count)
+                : Math.floorMod(turns.computeIfAbsent(streamKey, k -> new AtomicInteger()).getAndIncrement(), count);
+        return getPartitionKey(streamKey, partition);
+    }
+
+    /**
+     * Returns the record id passed to the functions, qualified with the partition if the stream key is a partition.
+     *
+     * @param partitionKey stream key the record was read from or sent to.
+     * @param recordId     Redis record id.
+     * @return qualified record id, the record id itself if the topic has no partitions.
+     */
+    public String qualifyRecordId(final String partitionKey, final String recordId) {
+        final int separator = partitionKey.lastIndexOf(PARTITION_SEPARATOR);
+        if (isNull(recordId) || separator < 0 || !partitions.containsKey(partitionKey.substring(0, separator))) {
+            return recordId;
+        }
+        return String.format("%s%c%s", partitionKey.substring(separator + 1), RECORD_ID_SEPARATOR, recordId);
+    }
+
+    /**
+     * Groups the record ids of a topic by the stream key they were read from.
+     *
+     * @param streamKey stream key of the topic.
+     * @param recordIds record ids, qualified with the partition for partitioned topics.
+     * @return Redis record ids by stream key, unqualified ids belong to the stream key of the topic.
+     */
+    public Map<String, List<String>> groupRecordIds(final String streamKey, final String... recordIds) {
+        final Integer count = partitions.get(streamKey);
+        final Map<String, List<String>> recordIdsByKey = new LinkedHashMap<>();
+        for (String recordId : recordIds) {
+            final int separator = recordId.indexOf(RECORD_ID_SEPARATOR);
+            final int partition = nonNull(count) && separator > 0 ? parsePartition(recordId.substring(0, separator), count) : -1;
+            if (partition < 0) {
+                recordIdsByKey.computeIfAbsent(streamKey, key -> new ArrayList<>()).add(recordId);
+            } else {
+                recordIdsByKey.computeIfAbsent(getPartitionKey(streamKey, partition), key -> new ArrayList<>())
+                        .add(recordId.substring(separator + 1));
+            }
+        }
+        return recordIdsByKey;
+    }
+
+    private int parsePartition(final String value, final int count) {
+        try {
+            final int partition = Integer.parseInt(value);
+            return partition < count ? partition : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private String getPartitionKey(final String streamKey, final int partition) {
+        return String.format("%s%c%d", streamKey, PARTITION_SEPARATOR, partition);
+    }
+
+}
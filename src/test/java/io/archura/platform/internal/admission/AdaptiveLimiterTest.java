@@ -0,0 +1,154 @@
+package io.archura.platform.internal.admission;
+
+import io.archura.platform.internal.configuration.GlobalConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveLimiterTest {
+
+    private static final long FAST_RTT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW_RTT_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    void rejectsCallersAboveTheLimitWithoutQueue() throws InterruptedException {
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(createConfiguration(2, 0));
+
+        assertTrue(limiter.acquire());
+        assertTrue(limiter.acquire());
+        assertFalse(limiter.acquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void rejectsQueuedCallersAfterTheQueueTimeout() throws InterruptedException {
+        final GlobalConfiguration.AdmissionConfiguration configuration = createConfiguration(1, 1);
+        configuration.setQueueTimeoutMillis(20);
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(configuration);
+        assertTrue(limiter.acquire());
+
+        final long start = System.nanoTime();
+        assertFalse(limiter.acquire());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(0, limiter.getWaiting());
+    }
+
+    @Test
+    void handsAReleasedPermitToAQueuedCaller() throws Exception {
+        final GlobalConfiguration.AdmissionConfiguration configuration = createConfiguration(1, 1);
+        configuration.setQueueTimeoutMillis(TimeUnit.SECONDS.toMillis(10));
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(configuration);
+        assertTrue(limiter.acquire());
+
+        final CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        awaitWaiting(limiter, 1);
+        assertFalse(limiter.acquire());
+        limiter.release(FAST_RTT_NANOS);
+
+        assertTrue(queued.get(10, TimeUnit.SECONDS));
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void growsTheLimitWhileLatencyIsSteadyAndTheLimitIsUsed() throws InterruptedException {
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(createConfiguration(10, 0));
+
+        for (int round = 0; round < 20; round++) {
+            saturate(limiter, FAST_RTT_NANOS);
+        }
+
+        assertTrue(limiter.getLimit() > 10);
+        assertTrue(limiter.getLimit() <= 1000);
+    }
+
+    @Test
+    void keepsTheLimitWhileMostOfItIsUnused() throws InterruptedException {
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(createConfiguration(10, 0));
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.acquire());
+            limiter.release(FAST_RTT_NANOS);
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void shrinksTheLimitWhenLatencyRises() throws InterruptedException {
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(createConfiguration(50, 0));
+        for (int round = 0; round < 5; round++) {
+            saturate(limiter, FAST_RTT_NANOS);
+        }
+        final int steadyLimit = limiter.getLimit();
+
+        for (int round = 0; round < 20; round++) {
+            saturate(limiter, SLOW_RTT_NANOS);
+        }
+
+        assertTrue(limiter.getLimit() < steadyLimit);
+        assertTrue(limiter.getLimit() >= 1);
+    }
+
+    @Test
+    void keepsTheLimitWithinTheConfiguredBounds() throws InterruptedException {
+        final GlobalConfiguration.AdmissionConfiguration configuration = createConfiguration(10, 0);
+        configuration.setMinLimit(5);
+        configuration.setMaxLimit(12);
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(configuration);
+
+        for (int round = 0; round < 50; round++) {
+            saturate(limiter, FAST_RTT_NANOS);
+        }
+        assertEquals(12, limiter.getLimit());
+
+        for (int round = 0; round < 50; round++) {
+            saturate(limiter, SLOW_RTT_NANOS * 10);
+        }
+        assertEquals(5, limiter.getLimit());
+    }
+
+    private static GlobalConfiguration.AdmissionConfiguration createConfiguration(final int initialLimit, final int queueSize) {
+        final GlobalConfiguration.AdmissionConfiguration configuration = new GlobalConfiguration.AdmissionConfiguration();
+        configuration.setEnabled(true);
+        configuration.setInitialLimit(initialLimit);
+        configuration.setQueueSize(queueSize);
+        configuration.setQueueTimeoutMillis(0);
+        // a long window keeps the long-term round trip time steady across the rounds of a test
+        configuration.setLongWindow(10_000);
+        return configuration;
+    }
+
+    /**
+     * Acquires every permit of the current limit and releases them with the round trip time.
+     */
+    private static void saturate(final AdaptiveLimiter limiter, final long rttNanos) throws InterruptedException {
+        int acquired = 0;
+        while (limiter.acquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(rttNanos);
+        }
+    }
+
+    private static void awaitWaiting(final AdaptiveLimiter limiter, final int waiting) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (limiter.getWaiting() < waiting && System.nanoTime() - deadline < 0) {
+            Thread.sleep(1);
+        }
+        assertEquals(waiting, limiter.getWaiting());
+    }
+
+}
@@ -0,0 +1,135 @@
+package io.archura.platform.internal.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerWheelTest {
+
+    private static final long AWAIT_SECONDS = 10;
+
+    @Test
+    void runsTaskOnceItsDelayHasPassed() throws InterruptedException {
+        try (TimerWheel wheel = new TimerWheel("test-wheel", 1, TimeUnit.MILLISECONDS)) {
+            final Firing firing = schedule(wheel, 30);
+
+            assertTrue(firing.await());
+            assertTrue(firing.isOnTime());
+            assertTrue(firing.timeout().isExpired());
+            assertEquals(0, wheel.getPending());
+        }
+    }
+
+    @Test
+    void cascadesTimeoutsFromTheSecondLevel() throws InterruptedException {
+        try (TimerWheel wheel = new TimerWheel("test-wheel", 1, TimeUnit.MILLISECONDS)) {
+            // more than 64 ticks away, placed in the second level and cascaded into the first
+            final Firing firing = schedule(wheel, 150);
+
+            assertTrue(firing.await());
+            assertTrue(firing.isOnTime());
+        }
+    }
+
+    @Test
+    void cascadesTimeoutsFromTheThirdLevel() throws InterruptedException {
+        try (TimerWheel wheel = new TimerWheel("test-wheel", 1, TimeUnit.MILLISECONDS)) {
+            // more than 64 * 64 ticks away, cascaded through the second level
+            final Firing firing = schedule(wheel, 4_200);
+
+            assertTrue(firing.await());
+            assertTrue(firing.isOnTime());
+        }
+    }
+
+    @Test
+    void placesTimeoutsBeyondTheHighestLevelAgainWhenTheirBucketComesAround() throws InterruptedException {
+        try (TimerWheel wheel = new TimerWheel("test-wheel", 1, TimeUnit.MILLISECONDS, 1)) {
+            // a single level spans 64 ticks, the bucket of the timeout comes around three times before its deadline
+            final Firing firing = schedule(wheel, 200);
+
+            assertTrue(firing.await());
+            assertTrue(firing.isOnTime());
+        }
+    }
+
+    @Test
+    void runsEveryTimeoutNoEarlierThanItsDeadline() throws InterruptedException {
+        try (TimerWheel wheel = new TimerWheel("test-wheel", 1, TimeUnit.MILLISECONDS, 2)) {
+            final Random random = new Random(42);
+            final List<Firing> firings = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                firings.add(schedule(wheel, random.nextInt(300)));
+            }
+
+            for (Firing firing : firings) {
+                assertTrue(firing.await());
+                assertTrue(firing.isOnTime());
+            }
+            assertEquals(0, wheel.getPending());
+        }
+    }
+
+    @Test
+    void doesNotRunCancelledTimeouts() throws InterruptedException {
+        try (TimerWheel wheel = new TimerWheel("test-wheel", 1, TimeUnit.MILLISECONDS)) {
+            final AtomicBoolean ran = new AtomicBoolean();
+            final TimerWheel.Timeout timeout = wheel.schedule(() -> ran.set(true), 50, TimeUnit.MILLISECONDS);
+            final Firing later = schedule(wheel, 100);
+
+            assertTrue(timeout.cancel());
+            assertFalse(timeout.cancel());
+            assertEquals(1, wheel.getPending());
+            assertTrue(later.await());
+            assertFalse(ran.get());
+            assertFalse(timeout.isExpired());
+            assertEquals(0, wheel.getPending());
+        }
+    }
+
+    @Test
+    void keepsRunningAfterAFailingTask() throws InterruptedException {
+        try (TimerWheel wheel = new TimerWheel("test-wheel", 1, TimeUnit.MILLISECONDS)) {
+            wheel.schedule(() -> {
+                throw new IllegalStateException("failing task");
+            }, 10, TimeUnit.MILLISECONDS);
+            final Firing firing = schedule(wheel, 50);
+
+            assertTrue(firing.await());
+        }
+    }
+
+    private static Firing schedule(final TimerWheel wheel, final long delayMillis) {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicLong firedAt = new AtomicLong();
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        final TimerWheel.Timeout timeout = wheel.schedule(() -> {
+            firedAt.set(System.nanoTime());
+            latch.countDown();
+        }, delayMillis, TimeUnit.MILLISECONDS);
+        return new Firing(timeout, latch, deadline, firedAt);
+    }
+
+    private record Firing(TimerWheel.Timeout timeout, CountDownLatch latch, long deadline, AtomicLong firedAt) {
+
+        boolean await() throws InterruptedException {
+            return latch.await(AWAIT_SECONDS, TimeUnit.SECONDS);
+        }
+
+        boolean isOnTime() {
+            return firedAt.get() - deadline >= 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,183 @@
+package io.archura.platform.internal.schedule;
+
+import io.archura.platform.internal.configuration.CoordinationMode;
+import io.archura.platform.internal.configuration.GlobalConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduleCoordinatorTest {
+
+    private static final int TENANTS = 200;
+    private static final String FUNCTION_KEY = "function-1.0.0";
+    private static final long FIRE_EPOCH_MILLIS = 1_700_000_000_000L;
+
+    private final InMemoryCoordinationStore store = new InMemoryCoordinationStore();
+    private final List<ScheduleCoordinator> coordinators = new ArrayList<>();
+
+    @AfterEach
+    void closeCoordinators() {
+        coordinators.forEach(ScheduleCoordinator::close);
+    }
+
+    @Test
+    void runsEveryFiringWithoutCoordination() {
+        final ScheduleCoordinator first = start("node-a", createConfiguration(CoordinationMode.NONE));
+        final ScheduleCoordinator second = start("node-b", createConfiguration(CoordinationMode.NONE));
+
+        assertTrue(first.claim("env-1:tenant-1", FUNCTION_KEY, FIRE_EPOCH_MILLIS));
+        assertTrue(second.claim("env-1:tenant-1", FUNCTION_KEY, FIRE_EPOCH_MILLIS));
+    }
+
+    @Test
+    void claimsEachFiringOnceAcrossCoordinators() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            start(String.format("node-%d", i), createConfiguration(CoordinationMode.LEASE));
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(coordinators.size());
+        try {
+            for (int firing = 0; firing < 50; firing++) {
+                final long fireEpochMillis = FIRE_EPOCH_MILLIS + firing * 1000L;
+                final CountDownLatch ready = new CountDownLatch(1);
+                final List<Future<Boolean>> claims = new ArrayList<>();
+                for (ScheduleCoordinator coordinator : coordinators) {
+                    final Callable<Boolean> claim = () -> {
+                        ready.await();
+                        return coordinator.claim("env-1:tenant-1", FUNCTION_KEY, fireEpochMillis);
+                    };
+                    claims.add(executor.submit(claim));
+                }
+                ready.countDown();
+                int claimed = 0;
+                for (Future<Boolean> claim : claims) {
+                    if (claim.get(10, TimeUnit.SECONDS)) {
+                        claimed++;
+                    }
+                }
+                assertEquals(1, claimed);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void keepsLeasesOfDifferentFiringsApart() {
+        final ScheduleCoordinator first = start("node-a", createConfiguration(CoordinationMode.LEASE));
+        final ScheduleCoordinator second = start("node-b", createConfiguration(CoordinationMode.LEASE));
+
+        assertTrue(first.claim("env-1:tenant-1", FUNCTION_KEY, FIRE_EPOCH_MILLIS));
+        assertFalse(second.claim("env-1:tenant-1", FUNCTION_KEY, FIRE_EPOCH_MILLIS));
+        assertTrue(second.claim("env-1:tenant-1", FUNCTION_KEY, FIRE_EPOCH_MILLIS + 1000));
+        assertTrue(second.claim("env-1:tenant-2", FUNCTION_KEY, FIRE_EPOCH_MILLIS));
+    }
+
+    @Test
+    void splitsTenantsAcrossTheRingAfterJoin() {
+        for (int i = 0; i < 3; i++) {
+            start(String.format("node-%d", i), createConfiguration(CoordinationMode.SHARDED));
+        }
+        heartbeat(coordinators);
+
+        assertOwnedOnce(coordinators);
+        for (int tenant = 0; tenant < TENANTS; tenant++) {
+            final String tenantKey = tenantKey(tenant);
+            for (ScheduleCoordinator coordinator : coordinators) {
+                assertEquals(coordinator.owns(tenantKey), coordinator.claim(tenantKey, FUNCTION_KEY, FIRE_EPOCH_MILLIS));
+            }
+        }
+    }
+
+    @Test
+    void movesTenantsOfALeavingCoordinator() {
+        for (int i = 0; i < 3; i++) {
+            start(String.format("node-%d", i), createConfiguration(CoordinationMode.SHARDED));
+        }
+        heartbeat(coordinators);
+        final ScheduleCoordinator leaving = coordinators.get(2);
+        final List<ScheduleCoordinator> remaining = coordinators.subList(0, 2);
+
+        leaving.close();
+        heartbeat(remaining);
+
+        assertOwnedOnce(remaining);
+    }
+
+    @Test
+    void movesTenantsOfAnExpiredCoordinator() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            start(String.format("node-%d", i), createConfiguration(CoordinationMode.SHARDED));
+        }
+        final GlobalConfiguration.SchedulerConfiguration expiring = createConfiguration(CoordinationMode.SHARDED);
+        expiring.setMemberTtlSeconds(1);
+        start("node-3", expiring);
+        heartbeat(coordinators);
+        assertOwnedOnce(coordinators);
+
+        // the expiring coordinator sends no further heartbeats
+        TimeUnit.MILLISECONDS.sleep(1200);
+        final List<ScheduleCoordinator> remaining = coordinators.subList(0, 3);
+        heartbeat(remaining);
+
+        assertOwnedOnce(remaining);
+    }
+
+    private ScheduleCoordinator start(final String nodeId, final GlobalConfiguration.SchedulerConfiguration configuration) {
+        final ScheduleCoordinator coordinator = new ScheduleCoordinator(new SimpleMeterRegistry(), nodeId);
+        coordinators.add(coordinator);
+        coordinator.start(configuration, store);
+        return coordinator;
+    }
+
+    private static GlobalConfiguration.SchedulerConfiguration createConfiguration(final CoordinationMode mode) {
+        final GlobalConfiguration.SchedulerConfiguration configuration = new GlobalConfiguration.SchedulerConfiguration();
+        configuration.setCoordination(mode);
+        configuration.setCoordinationStore(ScheduleCoordinator.MEMORY_STORE);
+        // heartbeats are sent by the tests
+        configuration.setHeartbeatSeconds(3600);
+        configuration.setMemberTtlSeconds(3600);
+        return configuration;
+    }
+
+    private static void heartbeat(final List<ScheduleCoordinator> coordinators) {
+        coordinators.forEach(ScheduleCoordinator::heartbeat);
+    }
+
+    /**
+     * Asserts that every tenant is owned by exactly one of the coordinators and every coordinator owns a tenant.
+     */
+    private static void assertOwnedOnce(final List<ScheduleCoordinator> coordinators) {
+        final int[] owned = new int[coordinators.size()];
+        for (int tenant = 0; tenant < TENANTS; tenant++) {
+            int owners = 0;
+            for (int i = 0; i < coordinators.size(); i++) {
+                if (coordinators.get(i).owns(tenantKey(tenant))) {
+                    owners++;
+                    owned[i]++;
+                }
+            }
+            assertEquals(1, owners, tenantKey(tenant));
+        }
+        for (int i = 0; i < owned.length; i++) {
+            assertTrue(owned[i] > 0, coordinators.get(i).getNodeId());
+        }
+    }
+
+    private static String tenantKey(final int tenant) {
+        return String.format("env-1:tenant-%d", tenant);
+    }
+
+}